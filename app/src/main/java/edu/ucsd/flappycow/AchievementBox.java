@@ -1,6 +1,5 @@
 /**
- * Saves achievements and score in shared preferences.
- * You should use a SQLite DB instead, but I'm too lazy to chance it now.
+ * Saves achievements and score in the SaveStore.
  *
  * @author Lars Harmsen
  * Copyright (c) <2014> <Lars Harmsen - Quchen>
@@ -9,23 +8,24 @@
 package edu.ucsd.flappycow;
 
 import android.app.Activity;
-import android.content.SharedPreferences;
+
+import edu.ucsd.flappycow.core.World;
 
 public class AchievementBox {
     /**
      * Points needed for a gold medal
      */
-    public static final int GOLD_POINTS = 100;
+    public static final int GOLD_POINTS = World.GOLD_POINTS;
 
     /**
      * Points needed for a silver medal
      */
-    public static final int SILVER_POINTS = 50;
+    public static final int SILVER_POINTS = World.SILVER_POINTS;
 
     /**
      * Points needed for a bronze medal
      */
-    public static final int BRONZE_POINTS = 10;
+    public static final int BRONZE_POINTS = World.BRONZE_POINTS;
 
     public static final String SAVE_NAME = "achivements";
 
@@ -46,55 +46,50 @@ public class AchievementBox {
     /**
      * Stores the score and achievements locally.
      * <p>
-     * The accomplishments will be saved local via SharedPreferences.
-     * This makes it very easy to cheat.
+     * The accomplishments are kept in the SaveStore, which writes them in the background.
+     * This still makes it very easy to cheat, the replays can be verified though.
      * <p>
      * todo: is activity the right thing to pass in here?
      *
-     * @param activity activity that is needed for shared preferences
+     * @param activity activity that is needed for the SaveStore
      */
     public void save(Activity activity) {
-        SharedPreferences saves = activity.getSharedPreferences(SAVE_NAME, 0);
-        SharedPreferences.Editor editor = saves.edit();
-
-        if (points > saves.getInt(KEY_POINTS, 0)) {
-            editor.putInt(KEY_POINTS, points);
-        }
+        int achievements = 0;
         if (achievement_50_coins) {
-            editor.putBoolean(ACHIEVEMENT_KEY_50_COINS, true);
+            achievements |= SaveStore.ACHIEVEMENT_50_COINS;
         }
         if (achievement_toastification) {
-            editor.putBoolean(ACHIEVEMENT_KEY_TOASTIFICATION, true);
+            achievements |= SaveStore.ACHIEVEMENT_TOASTIFICATION;
         }
         if (achievement_bronze) {
-            editor.putBoolean(ACHIEVEMENT_KEY_BRONZE, true);
+            achievements |= SaveStore.ACHIEVEMENT_BRONZE;
         }
         if (achievement_silver) {
-            editor.putBoolean(ACHIEVEMENT_KEY_SILVER, true);
+            achievements |= SaveStore.ACHIEVEMENT_SILVER;
         }
         if (achievement_gold) {
-            editor.putBoolean(ACHIEVEMENT_KEY_GOLD, true);
+            achievements |= SaveStore.ACHIEVEMENT_GOLD;
         }
-
-        editor.apply();
+        SaveStore.getInstance(activity).addAchievements(points, achievements);
     }
 
     /**
      * reads the local stored data
      *
-     * @param activity activity that is needed for shared preferences
+     * @param activity activity that is needed for the SaveStore
      * @return local stored score and achievements
      */
     public static AchievementBox load(Activity activity) {
         AchievementBox box = new AchievementBox();
-        SharedPreferences saves = activity.getSharedPreferences(SAVE_NAME, 0);
+        SaveStore store = SaveStore.getInstance(activity);
+        int achievements = store.getAchievements();
 
-        box.points = saves.getInt(KEY_POINTS, 0);
-        box.achievement_50_coins = saves.getBoolean(ACHIEVEMENT_KEY_50_COINS, false);
-        box.achievement_toastification = saves.getBoolean(ACHIEVEMENT_KEY_TOASTIFICATION, false);
-        box.achievement_bronze = saves.getBoolean(ACHIEVEMENT_KEY_BRONZE, false);
-        box.achievement_silver = saves.getBoolean(ACHIEVEMENT_KEY_SILVER, false);
-        box.achievement_gold = saves.getBoolean(ACHIEVEMENT_KEY_GOLD, false);
+        box.points = store.getAchievementPoints();
+        box.achievement_50_coins = (achievements & SaveStore.ACHIEVEMENT_50_COINS) != 0;
+        box.achievement_toastification = (achievements & SaveStore.ACHIEVEMENT_TOASTIFICATION) != 0;
+        box.achievement_bronze = (achievements & SaveStore.ACHIEVEMENT_BRONZE) != 0;
+        box.achievement_silver = (achievements & SaveStore.ACHIEVEMENT_SILVER) != 0;
+        box.achievement_gold = (achievements & SaveStore.ACHIEVEMENT_GOLD) != 0;
 
         return box;
     }
@@ -0,0 +1,135 @@
+/**
+ * AtlasPacker
+ * Finds places for rectangles on a page of a texture atlas
+ * <p>
+ * Uses the skyline bottom-left heuristic: the page is filled from the top,
+ * every rectangle goes where its bottom edge ends up the highest.
+ * Packing the rectangles from the tallest to the lowest works best.
+ */
+
+package edu.ucsd.flappycow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class AtlasPacker {
+
+    /** Width of the page and the height it must not exceed */
+    private final int width, maxHeight;
+
+    /** Free space that is kept around every rectangle */
+    private final int padding;
+
+    /** The bottom edge of the filled area, as segments {x, y, width} from left to right */
+    private final List<int[]> skyline = new ArrayList<int[]>();
+
+    /** The size of the filled area */
+    private int usedWidth, height;
+
+    AtlasPacker(int width, int maxHeight, int padding) {
+        this.width = width;
+        this.maxHeight = maxHeight;
+        this.padding = padding;
+        skyline.add(new int[]{0, 0, width});
+    }
+
+    /**
+     * Finds a place for the rectangle and reserves it.
+     *
+     * @param position receives x and y of the top left corner
+     * @return false, if the rectangle doesn't fit on the page anymore
+     */
+    boolean add(int rectWidth, int rectHeight, int[] position) {
+        int w = rectWidth + padding;
+        int h = rectHeight + padding;
+
+        int bestIndex = -1, bestX = 0, bestY = Integer.MAX_VALUE;
+        for (int i = 0; i < skyline.size(); i++) {
+            int x = skyline.get(i)[0];
+            int y = fitAt(i, w);
+            if (y >= 0 && y + h <= maxHeight && y < bestY) {
+                bestIndex = i;
+                bestX = x;
+                bestY = y;
+            }
+        }
+        if (bestIndex < 0) {
+            return false;
+        }
+
+        insert(bestIndex, bestX, bestY + h, w);
+        usedWidth = Math.max(usedWidth, bestX + w);
+        height = Math.max(height, bestY + h);
+        position[0] = bestX;
+        position[1] = bestY;
+        return true;
+    }
+
+    /**
+     * The y coordinate a rectangle of the width would have, starting at the segment.
+     * -1 if it would stick out to the right.
+     */
+    private int fitAt(int index, int w) {
+        int x = skyline.get(index)[0];
+        if (x + w > width) {
+            return -1;
+        }
+        int y = 0;
+        int remaining = w;
+        for (int i = index; remaining > 0; i++) {
+            int[] segment = skyline.get(i);
+            y = Math.max(y, segment[1]);
+            remaining -= segment[2];
+        }
+        return y;
+    }
+
+    /**
+     * Raises the skyline below the new rectangle.
+     */
+    private void insert(int index, int x, int y, int w) {
+        skyline.add(index, new int[]{x, y, w});
+
+        // Shrink or remove the segments that are covered now
+        int right = x + w;
+        while (index + 1 < skyline.size()) {
+            int[] next = skyline.get(index + 1);
+            if (next[0] >= right) {
+                break;
+            }
+            int covered = right - next[0];
+            if (covered >= next[2]) {
+                skyline.remove(index + 1);
+            } else {
+                next[0] += covered;
+                next[2] -= covered;
+                break;
+            }
+        }
+
+        // Merge neighbours of the same height
+        for (int i = 0; i + 1 < skyline.size(); i++) {
+            int[] a = skyline.get(i);
+            int[] b = skyline.get(i + 1);
+            if (a[1] == b[1]) {
+                a[2] += b[2];
+                skyline.remove(i + 1);
+                i--;
+            }
+        }
+    }
+
+    /**
+     * The width that is needed for the rectangles so far
+     */
+    int getWidth() {
+        return usedWidth;
+    }
+
+    /**
+     * The height that is needed for the rectangles so far
+     */
+    int getHeight() {
+        return height;
+    }
+}
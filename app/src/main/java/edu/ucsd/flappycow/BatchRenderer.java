@@ -0,0 +1,116 @@
+/**
+ * BatchRenderer
+ * Draws the sprites of a texture that come one after the other with a single drawVertices
+ * <p>
+ * Every sprite is a quad of two triangles, the texture is a BitmapShader,
+ * so the texture coordinates are the pixels of the bitmap.
+ * The commands should be sorted by texture, see DisplayList.sort(), so the runs are long.
+ * The vertex arrays are allocated once, a run of more than MAX_QUADS sprites takes more calls.
+ */
+
+package edu.ucsd.flappycow;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Shader;
+
+import java.util.Arrays;
+
+public class BatchRenderer extends CanvasRenderer {
+
+    /** Sprites per draw call */
+    private static final int MAX_QUADS = 256;
+
+    /** x and y of the corners: left top, right top, left bottom, right bottom */
+    private final float[] vertices = new float[MAX_QUADS * 8];
+    private final float[] texCoords = new float[MAX_QUADS * 8];
+
+    /** Two triangles per quad, the same for every frame */
+    private final short[] indices = new short[MAX_QUADS * 6];
+
+    private final Paint paint = new Paint();
+
+    /** Shaders of the textures, and the bitmaps they were made for */
+    private BitmapShader[] shaders = new BitmapShader[8];
+    private Bitmap[] shaderBitmaps = new Bitmap[8];
+
+    /** Texture of the quads in the arrays */
+    private int texture = -1;
+    private int quads;
+
+    public BatchRenderer(Textures textures) {
+        super(textures);
+        for (int q = 0; q < MAX_QUADS; q++) {
+            int v = q * 4;
+            int i = q * 6;
+            indices[i] = (short) v;
+            indices[i + 1] = (short) (v + 1);
+            indices[i + 2] = (short) (v + 2);
+            indices[i + 3] = (short) (v + 2);
+            indices[i + 4] = (short) (v + 1);
+            indices[i + 5] = (short) (v + 3);
+        }
+    }
+
+    @Override
+    public void setCanvas(Canvas canvas) {
+        flush();
+        super.setCanvas(canvas);
+    }
+
+    @Override
+    public void draw(int texture, int srcLeft, int srcTop, int srcRight, int srcBottom,
+                     int dstLeft, int dstTop, int dstRight, int dstBottom, int layer) {
+        if (texture != this.texture || quads == MAX_QUADS) {
+            flush();
+            this.texture = texture;
+        }
+        int o = quads * 8;
+        set(vertices, o, dstLeft, dstTop, dstRight, dstBottom);
+        set(texCoords, o, srcLeft, srcTop, srcRight, srcBottom);
+        quads++;
+    }
+
+    private static void set(float[] corners, int o, int left, int top, int right, int bottom) {
+        corners[o] = left;
+        corners[o + 1] = top;
+        corners[o + 2] = right;
+        corners[o + 3] = top;
+        corners[o + 4] = left;
+        corners[o + 5] = bottom;
+        corners[o + 6] = right;
+        corners[o + 7] = bottom;
+    }
+
+    /**
+     * Draws the quads in the arrays.
+     */
+    @Override
+    public void flush() {
+        if (quads == 0) {
+            return;
+        }
+        paint.setShader(shader(texture));
+        canvas.drawVertices(Canvas.VertexMode.TRIANGLES, quads * 8, vertices, 0, texCoords, 0,
+            null, 0, indices, 0, quads * 6, paint);
+        quads = 0;
+    }
+
+    /**
+     * The shader of the texture, a new one if the bitmap of the texture was replaced.
+     */
+    private BitmapShader shader(int texture) {
+        if (texture >= shaders.length) {
+            shaders = Arrays.copyOf(shaders, texture * 2);
+            shaderBitmaps = Arrays.copyOf(shaderBitmaps, texture * 2);
+        }
+        Bitmap bitmap = textures.get(texture);
+        if (shaders[texture] == null || shaderBitmaps[texture] != bitmap) {
+            shaders[texture] = new BitmapShader(bitmap, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+            shaderBitmaps[texture] = bitmap;
+        }
+        return shaders[texture];
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * BitmapCache
+ * Decoded bitmaps of the resources, shared by all screens of the game
+ * <p>
+ * Holds as many bitmaps as fit into the budget and evicts the least recently used.
+ * Bitmaps that are needed soon can be decoded in the background with prefetch().
+ * The decoded pixels come from the PixelCache, after the first launch.
+ * Memory is given back when the system asks for it.
+ */
+
+package edu.ucsd.flappycow;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BitmapCache implements ComponentCallbacks2 {
+
+    /** Decoded as it is */
+    public static final int UNSCALED = 0;
+
+    /** Scaled to the screen, see Util.getScaledBitmapAlpha8 */
+    public static final int SCALED = 1;
+
+    /** Scaled to the screen, but never up, see Util.getDownScaledBitmapAlpha8 */
+    public static final int DOWN_SCALED = 2;
+
+    /** Part of the heap the cache may use */
+    private static final int BUDGET_DIVIDER = 8;
+
+    private static BitmapCache instance;
+
+    private final Context context;
+    private final LruCache<Long, Bitmap> cache;
+
+    /** Decodes that were started by prefetch() and haven't finished yet */
+    private final Map<Long, Future<Bitmap>> pending = new HashMap<Long, Future<Bitmap>>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    public static synchronized BitmapCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new BitmapCache(context.getApplicationContext(),
+                (int) (Runtime.getRuntime().maxMemory() / BUDGET_DIVIDER));
+        }
+        return instance;
+    }
+
+    private BitmapCache(Context context, int budgetBytes) {
+        this.context = context;
+        this.cache = new LruCache<Long, Bitmap>(budgetBytes) {
+            @Override
+            protected int sizeOf(Long key, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+        };
+        context.registerComponentCallbacks(this);
+    }
+
+    /**
+     * Returns the bitmap of the resource, decodes it if it isn't cached.
+     * Waits for the decode, if it was prefetched.
+     *
+     * @param scale UNSCALED, SCALED or DOWN_SCALED
+     */
+    public Bitmap get(int id, int scale) {
+        long key = key(id, scale);
+        Future<Bitmap> future;
+        synchronized (this) {
+            Bitmap bitmap = cache.get(key);
+            if (bitmap != null) {
+                return bitmap;
+            }
+            future = pending.get(key);
+        }
+        if (future != null) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                Log.w("BitmapCache", "Prefetch failed", e);
+            }
+        }
+        return load(key, id, scale);
+    }
+
+    /**
+     * Decodes the bitmap of the resource in the background, so get() won't have to.
+     */
+    public synchronized void prefetch(final int id, final int scale) {
+        final long key = key(id, scale);
+        if (cache.get(key) != null || pending.containsKey(key)) {
+            return;
+        }
+        pending.put(key, executor.submit(() -> load(key, id, scale)));
+    }
+
+    private Bitmap load(long key, int id, int scale) {
+        Bitmap bitmap = PixelCache.getInstance(context).get(id, scale);
+        synchronized (this) {
+            pending.remove(key);
+            cache.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    private static long key(int id, int scale) {
+        return ((long) id << 2) | scale;
+    }
+
+    /**
+     * Drops bitmaps, the less memory there is, the more.
+     * Bitmaps that are still shown stay alive until they aren't used anymore.
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_BACKGROUND) {
+            synchronized (this) {
+                cache.evictAll();
+            }
+            TextureAtlas.release();
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW || level == TRIM_MEMORY_UI_HIDDEN) {
+            synchronized (this) {
+                cache.trimToSize(cache.size() / 2);
+            }
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        onTrimMemory(TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * CanvasRenderer
+ * Draws the commands of a Renderer right away, to a Canvas, one drawBitmap per sprite
+ */
+
+package edu.ucsd.flappycow;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+import edu.ucsd.flappycow.core.Renderer;
+
+public class CanvasRenderer implements Renderer {
+    protected final Textures textures;
+    private final Rect src = new Rect();
+    private final Rect dst = new Rect();
+    protected Canvas canvas;
+
+    public CanvasRenderer(Textures textures) {
+        this.textures = textures;
+    }
+
+    /**
+     * The canvas of the current frame
+     */
+    public void setCanvas(Canvas canvas) {
+        this.canvas = canvas;
+    }
+
+    @Override
+    public void draw(int texture, int srcLeft, int srcTop, int srcRight, int srcBottom,
+                     int dstLeft, int dstTop, int dstRight, int dstBottom, int layer) {
+        src.set(srcLeft, srcTop, srcRight, srcBottom);
+        dst.set(dstLeft, dstTop, dstRight, dstBottom);
+        canvas.drawBitmap(textures.get(texture), src, dst, null);
+    }
+
+    /**
+     * Draws what is still buffered, has to be called before the canvas is posted.
+     * Nothing is buffered here.
+     */
+    public void flush() {
+    }
+
+    /**
+     * The canvas reads the bitmap when it draws, there is nothing to upload.
+     */
+    @Override
+    public void textureChanged(int texture) {
+    }
+}
@@ -8,10 +8,7 @@
 package edu.ucsd.flappycow;
 
 import android.app.Activity;
-import android.content.SharedPreferences;
-import android.media.AudioManager;
 import android.media.MediaPlayer;
-import android.media.SoundPool;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Message;
@@ -20,6 +17,13 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
 import com.google.ads.mediation.admob.AdMobAdapter;
 import com.google.android.gms.ads.AdRequest;
 import com.google.android.gms.ads.FullScreenContentCallback;
@@ -30,6 +34,9 @@ import com.google.android.gms.ads.initialization.OnInitializationCompleteListene
 import com.google.android.gms.ads.interstitial.InterstitialAd;
 import com.google.android.gms.ads.interstitial.InterstitialAdLoadCallback;
 
+import edu.ucsd.flappycow.core.Run;
+import edu.ucsd.flappycow.core.RunHistory;
+
 
 public class GameActivity extends Activity {
     /**
@@ -43,9 +50,14 @@ public class GameActivity extends Activity {
     public static final String coin_key = "coin_key";
 
     /**
-     * Will play things like mooing
+     * Boolean extra of the intent, lets the autopilot play
+     */
+    public static final String EXTRA_AUTOPILOT = "autopilot";
+
+    /**
+     * Directory in the app's files dir with the history of all finished runs
      */
-    public static SoundPool soundPool = new SoundPool(5, AudioManager.STREAM_MUSIC, 0);
+    public static final String HISTORY_DIR = "history";
 
     private static final int GAMES_PER_AD = 3;
     /**
@@ -98,6 +110,11 @@ public class GameActivity extends Activity {
      */
     int coins;
 
+    /**
+     * True, if the autopilot plays. Its runs don't count, they change neither the save nor the history.
+     */
+    boolean autopilot;
+
     /**
      * This will increase the revive price
      */
@@ -113,16 +130,32 @@ public class GameActivity extends Activity {
      */
     private InterstitialAd interstitial;
 
+    /**
+     * The finished runs, only used on the history thread.
+     * Null if it couldn't be opened.
+     */
+    private RunHistory runHistory;
+
+    /**
+     * Opens, writes and closes the history, so the game loop doesn't wait for the disk
+     */
+    private final ExecutorService historyThread = Executors.newSingleThreadExecutor();
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         accomplishmentBox = new AchievementBox();
         view = new GameView(this);
+        autopilot = getIntent().getBooleanExtra(EXTRA_AUTOPILOT, false);
+        if (autopilot) {
+            view.startAutopilot();
+        }
         gameOverDialog = new GameOverDialog(this);
         handler = new MyHandler(this);
         setContentView(view);
         initMusicPlayer();
         loadCoins();
+        historyThread.execute(this::openHistory);
         if (gameOverCounter % GAMES_PER_AD == 0) {
             setupAd();
         }
@@ -147,8 +180,52 @@ public class GameActivity extends Activity {
     }
 
     private void loadCoins() {
-        SharedPreferences saves = this.getSharedPreferences(coin_save, 0);
-        this.coins = saves.getInt(coin_key, 0);
+        this.coins = SaveStore.getInstance(this).getCoins();
+    }
+
+    private void openHistory() {
+        try {
+            runHistory = new RunHistory(new File(getFilesDir(), HISTORY_DIR), TimeZone.getDefault());
+        } catch (IOException e) {
+            Log.w("GameActivity", "Couldn't open the run history", e);
+        }
+    }
+
+    /**
+     * Appends the run to the history in the background.
+     * Called by the game loop, which may still run a bit after onDestroy.
+     * Runs of the autopilot are left out.
+     */
+    public void addToHistory(final Run run) {
+        if (autopilot) {
+            return;
+        }
+        try {
+            historyThread.execute(() -> {
+                if (runHistory == null) {
+                    return;
+                }
+                try {
+                    runHistory.add(run);
+                } catch (IOException e) {
+                    Log.w("GameActivity", "Couldn't add the run to the history", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            Log.w("GameActivity", "The history is closed already", e);
+        }
+    }
+
+    private void closeHistory() {
+        if (runHistory == null) {
+            return;
+        }
+        try {
+            runHistory.close();
+        } catch (IOException e) {
+            Log.w("GameActivity", "Couldn't close the run history", e);
+        }
+        runHistory = null;
     }
 
     /**
@@ -157,9 +234,12 @@ public class GameActivity extends Activity {
     @Override
     protected void onPause() {
         view.pause();
+        SoundEngine.getInstance(this).pauseSounds();
         if (musicPlayer != null && musicPlayer.isPlaying()) {
             musicPlayer.pause();
         }
+        // The process may be killed, before the delayed write happens
+        SaveStore.getInstance(this).flush();
         super.onPause();
     }
 
@@ -171,12 +251,25 @@ public class GameActivity extends Activity {
     @Override
     protected void onResume() {
         view.drawOnce();
+        SoundEngine.getInstance(this).resumeSounds();
         if (musicPlayer != null && musicShouldPlay) {
             musicPlayer.start();
         }
         super.onResume();
     }
 
+    /**
+     * Stops the game loop thread of the view
+     * and closes the history once the runs before are written.
+     */
+    @Override
+    protected void onDestroy() {
+        view.release();
+        historyThread.execute(this::closeHistory);
+        historyThread.shutdown();
+        super.onDestroy();
+    }
+
     /**
      * Prevent accidental exits by requiring a double press.
      */
@@ -226,18 +319,21 @@ public class GameActivity extends Activity {
         if (accomplishmentBox.points >= AchievementBox.BRONZE_POINTS) {
             if (!accomplishmentBox.achievement_bronze) {
                 accomplishmentBox.achievement_bronze = true;
+                BitmapCache.getInstance(this).prefetch(R.drawable.bronce, BitmapCache.SCALED);
                 handler.sendMessage(Message.obtain(handler, MyHandler.SHOW_TOAST, R.string.toast_achievement_bronze, MyHandler.SHOW_TOAST));
             }
 
             if (accomplishmentBox.points >= AchievementBox.SILVER_POINTS) {
                 if (!accomplishmentBox.achievement_silver) {
                     accomplishmentBox.achievement_silver = true;
+                    BitmapCache.getInstance(this).prefetch(R.drawable.silver, BitmapCache.SCALED);
                     handler.sendMessage(Message.obtain(handler, MyHandler.SHOW_TOAST, R.string.toast_achievement_silver, MyHandler.SHOW_TOAST));
                 }
 
                 if (accomplishmentBox.points >= AchievementBox.GOLD_POINTS) {
                     if (!accomplishmentBox.achievement_gold) {
                         accomplishmentBox.achievement_gold = true;
+                        BitmapCache.getInstance(this).prefetch(R.drawable.gold, BitmapCache.SCALED);
                         handler.sendMessage(Message.obtain(handler, MyHandler.SHOW_TOAST, R.string.toast_achievement_gold, MyHandler.SHOW_TOAST));
                     }
                 }
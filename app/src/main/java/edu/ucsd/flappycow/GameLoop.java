@@ -0,0 +1,174 @@
+/**
+ * The thread that runs the game
+ * <p>
+ * Ticks the game with a fixed timestep and renders once per display frame.
+ * The frames are paced by vsync via Choreographer callbacks, so the loop follows
+ * whatever refresh rate the panel runs at (60, 90, 120 Hz, ...).
+ */
+
+package edu.ucsd.flappycow;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.view.Choreographer;
+
+public class GameLoop extends HandlerThread implements Choreographer.FrameCallback {
+
+    /**
+     * What the loop drives
+     */
+    public interface Callback {
+        /**
+         * Advances the game by exactly one tick.
+         */
+        void onTick();
+
+        /**
+         * Draws a frame.
+         *
+         * @param alpha how far the frame lies between the last tick (0) and the next one (1)
+         */
+        void onRender(float alpha);
+    }
+
+    /**
+     * Ticks that may run in one frame before the loop drops the backlog.
+     * Keeps a slow frame from being followed by an even slower one.
+     */
+    private static final int MAX_TICKS_PER_FRAME = 4;
+
+    private final Callback callback;
+
+    /** Length of one tick in nanoseconds */
+    private final long tickNanos;
+
+    private Handler handler;
+    private Choreographer choreographer;
+
+    /** Whether ticks are running. Only touched by the loop thread. */
+    private boolean running;
+
+    /** Vsync timestamp of the last frame, 0 if the next frame is the first one */
+    private long lastFrameNanos;
+
+    /** Time that has passed but was not ticked yet */
+    private long accumulator;
+
+    private final Runnable startTicks = this::startTicks;
+    private final Runnable stopTicks = this::stopTicks;
+
+    public GameLoop(Callback callback, long tickMillis) {
+        super("GameLoop", Process.THREAD_PRIORITY_DISPLAY);
+        this.callback = callback;
+        this.tickNanos = tickMillis * 1000000L;
+    }
+
+    @Override
+    protected void onLooperPrepared() {
+        // The Choreographer is bound to the looper of the calling thread
+        choreographer = Choreographer.getInstance();
+    }
+
+    /**
+     * Starts the thread. Has to be called once before anything else.
+     */
+    public void startLoop() {
+        start();
+        handler = new Handler(getLooper());
+    }
+
+    /**
+     * Stops ticking and ends the thread once the queued work is done.
+     */
+    public void quitLoop() {
+        runOnLoop(stopTicks);
+        quitSafely();
+    }
+
+    /**
+     * Starts ticking with the next vsync.
+     */
+    public void resumeTicks() {
+        runOnLoop(startTicks);
+    }
+
+    /**
+     * Stops ticking. Takes effect immediately, when called from inside a tick.
+     */
+    public void pauseTicks() {
+        runOnLoop(stopTicks);
+    }
+
+    /**
+     * Runs the runnable on the loop thread, between two frames.
+     */
+    public void post(Runnable runnable) {
+        handler.post(runnable);
+    }
+
+    /**
+     * Runs the runnable on the loop thread, after the delay.
+     */
+    public void postDelayed(Runnable runnable, long delayMillis) {
+        handler.postDelayed(runnable, delayMillis);
+    }
+
+    public boolean isLoopThread() {
+        return Thread.currentThread() == this;
+    }
+
+    private void runOnLoop(Runnable runnable) {
+        if (isLoopThread()) {
+            runnable.run();
+        } else {
+            handler.post(runnable);
+        }
+    }
+
+    private void startTicks() {
+        if (!running) {
+            running = true;
+            lastFrameNanos = 0;
+            accumulator = 0;
+            choreographer.postFrameCallback(this);
+        }
+    }
+
+    private void stopTicks() {
+        if (running) {
+            running = false;
+            choreographer.removeFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) {
+            return;
+        }
+
+        if (lastFrameNanos != 0) {
+            accumulator += frameTimeNanos - lastFrameNanos;
+        }
+        lastFrameNanos = frameTimeNanos;
+
+        int ticks = 0;
+        while (running && accumulator >= tickNanos) {
+            if (ticks == MAX_TICKS_PER_FRAME) {
+                // We can't catch up, so the game slows down instead of stalling
+                accumulator %= tickNanos;
+                break;
+            }
+            callback.onTick();
+            accumulator -= tickNanos;
+            ticks++;
+        }
+
+        // A tick might have paused the loop (e.g. game over)
+        if (running) {
+            callback.onRender((float) accumulator / tickNanos);
+            choreographer.postFrameCallback(this);
+        }
+    }
+}
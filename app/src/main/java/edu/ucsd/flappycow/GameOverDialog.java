@@ -8,7 +8,6 @@
 package edu.ucsd.flappycow;
 
 import android.app.Dialog;
-import android.content.SharedPreferences;
 import android.graphics.Color;
 import android.view.View;
 import android.widget.Button;
@@ -52,7 +51,8 @@ public class GameOverDialog extends Dialog {
         Button okButton = (Button) findViewById(R.id.b_ok);
         okButton.setOnClickListener(view -> {
             saveCoins();
-            if (gameActivity.numberOfRevive <= 1) {
+            gameActivity.view.finishRun();
+            if (gameActivity.numberOfRevive <= 1 && !gameActivity.autopilot) {
                 gameActivity.accomplishmentBox.save(gameActivity);
             }
 
@@ -84,52 +84,49 @@ public class GameOverDialog extends Dialog {
     }
 
     private void manageScore() {
-        SharedPreferences saves = gameActivity.getSharedPreferences(score_save_name, 0);
-        int oldPoints = saves.getInt(best_score_key, 0);
-        if (gameActivity.accomplishmentBox.points > oldPoints) {
+        SaveStore store = SaveStore.getInstance(gameActivity);
+        int oldPoints = store.getBestScore();
+        if (gameActivity.accomplishmentBox.points > oldPoints && !gameActivity.autopilot) {
             // Save new highscore
-            SharedPreferences.Editor editor = saves.edit();
-            editor.putInt(best_score_key, gameActivity.accomplishmentBox.points);
+            store.setBestScore(gameActivity.accomplishmentBox.points);
             tvBestScoreVal.setTextColor(Color.RED);
-            editor.apply();
         }
         tvCurrentScoreVal.setText("" + gameActivity.accomplishmentBox.points);
         tvBestScoreVal.setText("" + oldPoints);
     }
 
     private void manageMedals() {
-        SharedPreferences MEDAL_SAVE = gameActivity.getSharedPreferences(MainActivity.MEDAL_SAVE, 0);
-        int medal = MEDAL_SAVE.getInt(MainActivity.MEDAL_KEY, 0);
-
-        SharedPreferences.Editor editor = MEDAL_SAVE.edit();
+        SaveStore store = SaveStore.getInstance(gameActivity);
+        int medal = store.getMedal();
 
         if (gameActivity.accomplishmentBox.achievement_gold) {
-            ((ImageView) findViewById(R.id.medal)).setImageBitmap(Util.getScaledBitmapAlpha8(gameActivity, R.drawable.gold));
-            if (medal < 3) {
-                editor.putInt(MainActivity.MEDAL_KEY, 3);
+            ((ImageView) findViewById(R.id.medal)).setImageBitmap(BitmapCache.getInstance(gameActivity).get(R.drawable.gold, BitmapCache.SCALED));
+            if (medal < 3 && !gameActivity.autopilot) {
+                store.setMedal(3);
             }
         } else if (gameActivity.accomplishmentBox.achievement_silver) {
-            ((ImageView) findViewById(R.id.medal)).setImageBitmap(Util.getScaledBitmapAlpha8(gameActivity, R.drawable.silver));
-            if (medal < 2) {
-                editor.putInt(MainActivity.MEDAL_KEY, 2);
+            ((ImageView) findViewById(R.id.medal)).setImageBitmap(BitmapCache.getInstance(gameActivity).get(R.drawable.silver, BitmapCache.SCALED));
+            if (medal < 2 && !gameActivity.autopilot) {
+                store.setMedal(2);
             }
         } else if (gameActivity.accomplishmentBox.achievement_bronze) {
-            ((ImageView) findViewById(R.id.medal)).setImageBitmap(Util.getScaledBitmapAlpha8(gameActivity, R.drawable.bronce));
-            if (medal < 1) {
-                editor.putInt(MainActivity.MEDAL_KEY, 1);
+            ((ImageView) findViewById(R.id.medal)).setImageBitmap(BitmapCache.getInstance(gameActivity).get(R.drawable.bronce, BitmapCache.SCALED));
+            if (medal < 1 && !gameActivity.autopilot) {
+                store.setMedal(1);
             }
         } else {
             ((ImageView) findViewById(R.id.medal)).setVisibility(View.INVISIBLE);
         }
-        editor.apply();
     }
 
+    /**
+     * The coins of the autopilot are only spent on its own revives.
+     */
     private void saveCoins() {
-        SharedPreferences coin_save = gameActivity.getSharedPreferences(GameActivity.coin_save, 0);
-        coin_save.getInt(GameActivity.coin_key, 0);
-        SharedPreferences.Editor editor = coin_save.edit();
-        editor.putInt(GameActivity.coin_key, gameActivity.coins);
-        editor.apply();
+        if (gameActivity.autopilot) {
+            return;
+        }
+        SaveStore.getInstance(gameActivity).setCoins(gameActivity.coins);
     }
 
 }
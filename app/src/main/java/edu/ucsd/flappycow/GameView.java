@@ -10,22 +10,29 @@ package edu.ucsd.flappycow;
 
 import android.content.Context;
 import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
 import android.os.Build;
 import android.os.Message;
+import android.util.DisplayMetrics;
+import android.util.Log;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import edu.ucsd.flappycow.R;
 import edu.ucsd.flappycow.sprites.*;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
-
 import edu.ucsd.flappycow.sprites.Background;
 import edu.ucsd.flappycow.sprites.Coin;
 import edu.ucsd.flappycow.sprites.Cow;
@@ -34,34 +41,162 @@ import edu.ucsd.flappycow.sprites.NyanCat;
 import edu.ucsd.flappycow.sprites.Obstacle;
 import edu.ucsd.flappycow.sprites.PauseButton;
 import edu.ucsd.flappycow.sprites.PlayableCharacter;
-import edu.ucsd.flappycow.sprites.PowerUp;
+import edu.ucsd.flappycow.sprites.Spider;
 import edu.ucsd.flappycow.sprites.Toast;
 import edu.ucsd.flappycow.sprites.Tutorial;
 import edu.ucsd.flappycow.sprites.Virus;
+import edu.ucsd.flappycow.sprites.WoodLog;
+import edu.ucsd.flappycow.core.Autopilot;
+import edu.ucsd.flappycow.core.CollisionMasks;
+import edu.ucsd.flappycow.core.Difficulty;
+import edu.ucsd.flappycow.core.DisplayList;
+import edu.ucsd.flappycow.core.EntityStore;
+import edu.ucsd.flappycow.core.InputQueue;
+import edu.ucsd.flappycow.core.Profiler;
+import edu.ucsd.flappycow.core.Renderer;
+import edu.ucsd.flappycow.core.ReplayRecorder;
+import edu.ucsd.flappycow.core.Run;
+import edu.ucsd.flappycow.core.TapLatency;
+import edu.ucsd.flappycow.core.World;
+import edu.ucsd.flappycow.core.WorldConfig;
 
-public class GameView extends SurfaceView {
+/**
+ * Shows the simulated world and feeds it with the taps of the player.
+ * The game rules live in {@link World}.
+ */
+public class GameView extends SurfaceView
+    implements GameLoop.Callback, SurfaceHolder.Callback, World.Listener, InputQueue.Handler {
 
     /** Milliseconds for game timer tick */
-    public static final long UPDATE_INTERVAL = 50;        // = 20 FPS
+    public static final long UPDATE_INTERVAL = 50;        // = 20 ticks per second
+
+    /** States the autopilot keeps and ticks it looks ahead */
+    private static final int AUTOPILOT_BEAM_WIDTH = 8;
+    private static final int AUTOPILOT_DEPTH = 20;
+
+    /** Part of a tick the autopilot may think */
+    private static final int AUTOPILOT_BUDGET_DIVIDER = 10;
+
+    /** Frames of the blinking after a revive, and how long each is shown */
+    private static final int REVIVE_BLINKS = 6;
+    private static final long REVIVE_BLINK_MILLIS = UPDATE_INTERVAL * 6;
 
-    private Timer timer = new Timer();
-    private TimerTask timerTask;
+    /** Touches that may wait for the next tick */
+    private static final int INPUT_CAPACITY = 64;
+
+    /** Sprites of the same texture are drawn with one call, otherwise one by one */
+    private static final boolean BATCH_SPRITES = true;
+
+    /** File in the app's files dir, the frame times are written to on pause */
+    public static final String PROFILE_FILE = "frame_times.txt";
+
+    /** Directory in the app's files dir with a replay of every session */
+    public static final String REPLAY_DIR = "replays";
+
+    /** Directory in the app's files dir with the tap latencies of every session, written on pause */
+    public static final String LATENCY_DIR = "latency";
+
+    /**
+     * Files in REPLAY_DIR with the collision masks the replays need, named by the hash the replays store,
+     * so every screen size and density has its own
+     */
+    public static final String MASKS_PREFIX = "masks_";
+    public static final String MASKS_EXTENSION = ".bin";
+
+    /** Ticks the game and renders the frames */
+    private final GameLoop gameLoop;
+
+    /** How far the rendered frame is between the last and the next tick */
+    private float interpolation = 1f;
 
     /** The surfaceholder needed for the canvas drawing */
     private SurfaceHolder holder;
 
     private GameActivity gameActivity;
+
+    /** The sprite sheets, held as long as the view lives */
+    private final TextureAtlas atlas;
+
+    /** The bitmaps behind the textures the sprites are drawn with */
+    private final Textures textures;
+
+    /**
+     * The sprites record a frame into a display list, which is drawn to the canvas.
+     * A frame that looks like the last one isn't drawn, the surface still shows it.
+     */
+    private DisplayList frame = new DisplayList();
+    private DisplayList lastFrame = new DisplayList();
+    private final CanvasRenderer canvasRenderer;
+
+    /** The surface lost what it showed, so the next frame is drawn in any case */
+    volatile private boolean surfaceChanged = true;
+
+    /** The game itself */
+    private final World world;
+
+    /**
+     * The touches, from the UI thread to the game loop.
+     * Only the game loop looks at them and changes the game.
+     */
+    private final InputQueue inputQueue = new InputQueue(INPUT_CAPACITY);
+    private final Runnable drainInput = this::drainInput;
+
+    /** Input that is handed to the world with the next tick, only used by the game loop */
+    private int tickInput = World.INPUT_NONE;
+
+    /** Blink frames shown since the revive, REVIVE_BLINKS when not blinking, only used by the game loop */
+    private int blinks = REVIVE_BLINKS;
+    private final Runnable blink = this::blink;
+
+    /** Moves the dead player down a bit, until it is on the ground */
+    private final Runnable fall = this::fall;
+
+    /** The touches aren't handled while the player blinks after a revive */
+    volatile private boolean blinking = false;
+
     private PlayableCharacter player;
     private Background background;
     private Frontground frontground;
-    private List<Obstacle> obstacles = new ArrayList<Obstacle>();
-    private List<PowerUp> powerUps = new ArrayList<PowerUp>();
+
+    /** Plays the sounds of the obstacles */
+    private Obstacle obstacle;
+
+    /** Draw the power-ups of the world and get told when they are eaten */
+    private Toast toast;
+    private Coin coin;
+    private Virus virus;
+
+    /** Draws the entities of the world, one sprite per kind, indexed by the kind */
+    private Sprite[] entitySprites;
 
     private PauseButton pauseButton;
+    private Hud hud;
+
+    /** Times the phases of the ticks and frames, dumped to PROFILE_FILE on pause */
+    private final Profiler profiler = new Profiler();
+
+    /** From the touch to the posted frame, for the whole session */
+    private final TapLatency tapLatency = new TapLatency();
+    private final File latencyFile;
+    private ProfilerOverlay profilerOverlay;
+    volatile private boolean profilerShown = false;
+
+    /** Plays instead of the player, e.g. as a demo, if set */
+    volatile private Autopilot autopilot;
+
+    /** Pixel exact collisions, built from the texture atlas */
+    private final CollisionMasks masks;
+
+    /** Records the inputs, the replay is saved to replayFile after every game over */
+    private final ReplayRecorder recorder;
+    private final File replayFile;
+
+    /** Writes the replays and the measurements, so the game loop doesn't wait for the disk */
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
     volatile private boolean paused = true;
 
     private Tutorial tutorial;
-    private boolean tutorialIsShown = true;
+    volatile private boolean tutorialIsShown = true;
 
     public GameView(Context context) {
         super(context);
@@ -69,37 +204,77 @@ public class GameView extends SurfaceView {
         setFocusable(true);
 
         holder = getHolder();
-        player = new Cow(this, gameActivity);
+        holder.addCallback(this);
+
+        // The game is fullscreen, so the display size is the size of the view
+        DisplayMetrics metrics = getResources().getDisplayMetrics();
+        world = new World(new WorldConfig(metrics.widthPixels, metrics.heightPixels, Util.getScaleFactor(context),
+            new Difficulty(), getTickSeconds()));
+        world.setListener(this);
+        world.setProfiler(profiler);
+
+        atlas = TextureAtlas.getInstance(context);
+        textures = new Textures(atlas);
+        canvasRenderer = BATCH_SPRITES ? new BatchRenderer(textures) : new CanvasRenderer(textures);
+        masks = new CollisionMasks(
+            atlas.getRegion(TextureAtlas.COW).getCollisionMask(),
+            atlas.getRegion(TextureAtlas.NYAN_CAT).getCollisionMask(),
+            atlas.getRegion(TextureAtlas.SPIDER).getCollisionMask(),
+            atlas.getRegion(TextureAtlas.LOG).getCollisionMask(),
+            atlas.getRegion(TextureAtlas.TOAST).getCollisionMask(),
+            atlas.getRegion(TextureAtlas.COIN).getCollisionMask(),
+            atlas.getRegion(TextureAtlas.VIRUS).getCollisionMask());
+        world.setCollisionMasks(masks);
+        recorder = new ReplayRecorder(world, masks);
+        long sessionStart = System.currentTimeMillis();
+        replayFile = new File(new File(context.getFilesDir(), REPLAY_DIR), sessionStart + ".fcr");
+        latencyFile = new File(new File(context.getFilesDir(), LATENCY_DIR), sessionStart + ".txt");
+        player = new Cow(this, gameActivity, world.getPlayer());
+        player.move();
+        obstacle = new Obstacle(this, gameActivity);
+        toast = new Toast(this, gameActivity);
+        coin = new Coin(this, gameActivity);
+        virus = new Virus(this, gameActivity);
+        entitySprites = new Sprite[EntityStore.KINDS];
+        entitySprites[EntityStore.SPIDER] = new Spider(this, gameActivity);
+        entitySprites[EntityStore.LOG] = new WoodLog(this, gameActivity);
+        entitySprites[EntityStore.TOAST] = toast;
+        entitySprites[EntityStore.COIN] = coin;
+        entitySprites[EntityStore.VIRUS] = virus;
         background = new Background(this, gameActivity);
         frontground = new Frontground(this, gameActivity);
         pauseButton = new PauseButton(this, gameActivity);
+        hud = new Hud(this, gameActivity);
         tutorial = new Tutorial(this, gameActivity);
+
+        gameLoop = new GameLoop(this, UPDATE_INTERVAL);
+        gameLoop.startLoop();
     }
 
-    private void startTimer() {
-        setUpTimerTask();
-        timer = new Timer();
-        timer.schedule(timerTask, UPDATE_INTERVAL, UPDATE_INTERVAL);
+    /**
+     * Ends the game loop thread. The view can't be used afterwards.
+     * The writer is shut down on the loop, after the dumps that onPause posted, and finishes their writes.
+     */
+    public void release() {
+        gameLoop.post(writer::shutdown);
+        gameLoop.quitLoop();
     }
 
-    private void stopTimer() {
-        if (timer != null) {
-            timer.cancel();
-            timer.purge();
-        }
-        if (timerTask != null) {
-            timerTask.cancel();
-        }
+    @Override
+    public void surfaceCreated(SurfaceHolder holder) {
+        surfaceChanged = true;
+        drawOnce();
     }
 
-    private void setUpTimerTask() {
-        stopTimer();
-        timerTask = new TimerTask() {
-            @Override
-            public void run() {
-                GameView.this.run();
-            }
-        };
+    @Override
+    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+        surfaceChanged = true;
+        drawOnce();
+    }
+
+    @Override
+    public void surfaceDestroyed(SurfaceHolder holder) {
+        pause();
     }
 
     @Override
@@ -108,36 +283,100 @@ public class GameView extends SurfaceView {
         // Just to remove the stupid warning
     }
 
+    /**
+     * Queues the touch for the game loop, which handles it with the next tick.
+     */
     @Override
     public boolean onTouchEvent(MotionEvent event) {
         performClick();
-        if (event.getAction() == MotionEvent.ACTION_DOWN  // Only for "touchdowns"
-            && !this.player.isDead()) { // No support for dead players
-            if (tutorialIsShown) {
-                // dismiss tutorial
-                tutorialIsShown = false;
-                resume();
-                this.player.onTap();
-            } else if (paused) {
-                resume();
-            } else if (pauseButton.isTouching((int) event.getX(), (int) event.getY()) && !this.paused) {
-                pause();
-            } else {
-                this.player.onTap();
-            }
+        int kind;
+        if (event.getActionMasked() == MotionEvent.ACTION_POINTER_DOWN && event.getPointerCount() == 2) {
+            kind = InputQueue.SECOND_DOWN;
+        } else if (event.getAction() == MotionEvent.ACTION_DOWN) {  // Only for "touchdowns"
+            kind = InputQueue.DOWN;
+        } else {
+            return true;
+        }
+        // The event time is uptime, on the same monotonic clock as System.nanoTime()
+        if (inputQueue.offer(kind, (int) event.getX(), (int) event.getY(), event.getEventTime() * 1000000L)
+            && paused && !blinking) {
+            // There are no ticks that would drain the queue
+            gameLoop.post(drainInput);
         }
         return true;
     }
 
     /**
-     * content of the timertask
+     * Handles the queued touches on the game loop.
      */
-    public void run() {
-        checkPasses();
-        checkOutOfRange();
-        checkCollision();
-        createObstacle();
+    private void drainInput() {
+        if (!blinking) {
+            inputQueue.drain(this);
+        }
+    }
+
+    @Override
+    public void onInput(int kind, int x, int y, long timeNanos) {
+        if (kind == InputQueue.SECOND_DOWN) {
+            // A second finger toggles the frame times
+            profilerShown = !profilerShown;
+            return;
+        }
+        if (player.isDead()) { // No support for dead players
+            return;
+        }
+        if (tutorialIsShown) {
+            // dismiss tutorial
+            tutorialIsShown = false;
+            tickInput = World.INPUT_TAP;
+            tapLatency.onQueued(timeNanos);
+            resume();
+        } else if (paused) {
+            resume();
+        } else if (pauseButton.isTouching(x, y)) {
+            pause();
+        } else {
+            tickInput = World.INPUT_TAP;
+            tapLatency.onQueued(timeNanos);
+        }
+    }
+
+    /**
+     * One tick of the game, called by the game loop
+     */
+    @Override
+    public void onTick() {
+        drainInput();
+        if (paused) {
+            // The pause button was touched
+            return;
+        }
+        int input = tickInput;
+        tickInput = World.INPUT_NONE;
+
+        Autopilot autopilot = this.autopilot;
+        boolean tapped = input == World.INPUT_TAP;
+        if (autopilot != null) {
+            input = autopilot.decide(world);
+            tapped = false;
+        }
+
+        recorder.onStep(input);
+        world.step(input);
+        tapLatency.onTick(tapped, System.nanoTime());
+        if (world.isGameOver()) {
+            gameOver();
+            return;
+        }
         move();
+    }
+
+    /**
+     * Draws a frame in between two ticks, called by the game loop
+     */
+    @Override
+    public void onRender(float alpha) {
+        this.interpolation = alpha;
         draw();
     }
 
@@ -157,219 +396,263 @@ public class GameView extends SurfaceView {
     /**
      * Draw Tutorial
      */
-    public void showTutorial() {
+    private void showTutorial() {
         player.move();
         pauseButton.move();
+        storePositions();
+        interpolation = 1f;
 
-        while (!holder.getSurface().isValid()) {
-            /*wait*/
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }
-
-        Canvas canvas = getCanvas();
-        drawCanvas(canvas, true);
         tutorial.move();
-        tutorial.draw(canvas);
-        holder.unlockCanvasAndPost(canvas);
+        // surfaceCreated will draw again, if there is no surface yet
+        draw(true, true);
+    }
+
+    /**
+     * Lets the autopilot play from now on, the taps of the player are ignored.
+     * Skips the tutorial.
+     */
+    public void startAutopilot() {
+        autopilot = new Autopilot(world.getConfig(), AUTOPILOT_BEAM_WIDTH, AUTOPILOT_DEPTH,
+            UPDATE_INTERVAL * 1000000L / AUTOPILOT_BUDGET_DIVIDER);
+        tutorialIsShown = false;
+        resume();
     }
 
     public void pause() {
-        stopTimer();
+        gameLoop.pauseTicks();
         paused = true;
+        gameLoop.post(this::dumpProfile);
+        gameLoop.post(this::dumpLatency);
+    }
+
+    /**
+     * Writes the frame times since the last pause to PROFILE_FILE and starts over.
+     * They are formatted on the game loop and written in the background.
+     */
+    private void dumpProfile() {
+        if (profiler.isEmpty()) {
+            return;
+        }
+        final StringBuilder text = new StringBuilder();
+        try {
+            profiler.dump(text);
+        } catch (IOException e) {
+            // A StringBuilder doesn't throw
+        }
+        profiler.reset();
+
+        final File file = new File(getContext().getFilesDir(), PROFILE_FILE);
+        writer.execute(() -> {
+            try (Writer out = new FileWriter(file)) {
+                out.append(text);
+            } catch (IOException e) {
+                Log.w("GameView", "Couldn't write " + file, e);
+            }
+        });
+    }
+
+    /**
+     * Formats the tap latencies of the session so far on the game loop, the writer thread writes them to latencyFile.
+     */
+    private void dumpLatency() {
+        if (tapLatency.getToTick().getCount() == 0) {
+            return;
+        }
+        final StringBuilder text = new StringBuilder();
+        try {
+            tapLatency.dump(text);
+        } catch (IOException e) {
+            // A StringBuilder doesn't throw
+        }
+
+        writer.execute(() -> {
+            latencyFile.getParentFile().mkdirs();
+            try (Writer out = new FileWriter(latencyFile)) {
+                out.append(text);
+            } catch (IOException e) {
+                Log.w("GameView", "Couldn't write " + latencyFile, e);
+            }
+        });
     }
 
+    /**
+     * Draws a single frame on the game loop thread, e.g. while paused.
+     */
     public void drawOnce() {
-        (new Thread(new Runnable() {
-            @Override
-            public void run() {
-                if (tutorialIsShown) {
-                    showTutorial();
-                } else {
-                    draw();
-                }
+        gameLoop.post(() -> {
+            if (tutorialIsShown) {
+                showTutorial();
+            } else {
+                draw();
             }
-        })).start();
+        });
     }
 
     public void resume() {
         paused = false;
-        startTimer();
+        gameLoop.resumeTicks();
     }
 
     /**
      * Draws all gameobjects on the surface
      */
     private void draw() {
-        while (!holder.getSurface().isValid()) {
-            /*wait*/
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+        draw(true);
+    }
+
+    private void draw(boolean drawPlayer) {
+        draw(drawPlayer, false);
+    }
+
+    /**
+     * Draws all gameobjects on the surface, if there is one
+     * and the frame doesn't look like the one that is already shown.
+     *
+     * @param drawPlayer whether the player is drawn as well
+     * @param drawTutorial whether the tutorial is drawn on top
+     */
+    private void draw(boolean drawPlayer, boolean drawTutorial) {
+        if (!holder.getSurface().isValid()) {
+            return;
+        }
+
+        long time = System.nanoTime();
+        frame.clear();
+        record(frame, drawPlayer);
+        if (drawTutorial) {
+            tutorial.draw(frame);
+        }
+        frame.sort();
+        time = profiler.lap(Profiler.RECORD, time);
+        if (!surfaceChanged && frame.looksLike(lastFrame)) {
+            return;
         }
 
         Canvas canvas = getCanvas();
+        time = profiler.lap(Profiler.LOCK_CANVAS, time);
+        if (canvas == null) {
+            return;
+        }
 
-        drawCanvas(canvas, true);
+        canvasRenderer.setCanvas(canvas);
+        frame.playTo(canvasRenderer);
+        canvasRenderer.flush();
+        canvasRenderer.setCanvas(null);
+        time = profiler.lap(Profiler.DRAW, time);
 
         holder.unlockCanvasAndPost(canvas);
+        time = profiler.lap(Profiler.POST_CANVAS, time);
+        // The display shows the frame with one of the next vsyncs, a SurfaceView can't tell which
+        tapLatency.onFramePosted(time);
+        surfaceChanged = false;
+
+        DisplayList shown = frame;
+        frame = lastFrame;
+        lastFrame = shown;
     }
 
     /**
-     * Draws everything normal,
-     * except the player will only be drawn, when the parameter is true
+     * Records everything normal,
+     * except the player will only be recorded, when the parameter is true
      *
      * @param drawPlayer
      */
-    private void drawCanvas(Canvas canvas, boolean drawPlayer) {
-        background.draw(canvas);
-        for (Obstacle r : obstacles) {
-            r.draw(canvas);
-        }
-        for (PowerUp p : powerUps) {
-            p.draw(canvas);
-        }
+    private void record(Renderer renderer, boolean drawPlayer) {
+        background.draw(renderer);
+        drawEntities(renderer, false);
+        drawEntities(renderer, true);
         if (drawPlayer) {
-            player.draw(canvas);
+            player.draw(renderer);
+        }
+        frontground.draw(renderer);
+        pauseButton.draw(renderer);
+        hud.draw(renderer);
+        if (profilerShown) {
+            if (profilerOverlay == null) {
+                profilerOverlay = new ProfilerOverlay(profiler, getScoreTextMetrics() / 2, textures);
+            }
+            profilerOverlay.draw(renderer, getWidth(), getHeight());
         }
-        frontground.draw(canvas);
-        pauseButton.draw(canvas);
-
-        // Score Text
-        Paint paint = new Paint();
-        paint.setColor(Color.BLACK);
-        paint.setTextSize(getScoreTextMetrics());
-        canvas.drawText(gameActivity.getResources().getString(R.string.onscreen_score_text) + " " + gameActivity.accomplishmentBox.points
-                + " / " + gameActivity.getResources().getString(R.string.onscreen_coin_text) + " " + gameActivity.coins,
-            0, getScoreTextMetrics(), paint);
     }
 
     /**
-     * Let the player fall to the ground
+     * Let the player fall to the ground, a step every quarter tick scheduled on the game loop.
+     * Saves the replay and shows the dialog, once the player is on the ground.
      */
     private void playerDeadFall() {
-        player.dead();
-        do {
-            player.move();
-            draw();
-            // sleep
-            try {
-                Thread.sleep(UPDATE_INTERVAL / 4);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        } while (!player.isTouchingGround());
+        world.getPlayer().dead();
+        interpolation = 1f;
+        fall();
     }
 
-    /**
-     * Checks whether an obstacle is passed.
-     */
-    private void checkPasses() {
-        for (Obstacle o : obstacles) {
-            if (o.isPassed()) {
-                if (!o.isAlreadyPassed) {    // probably not needed
-                    o.onPass();
-                    createPowerUp();
-                }
-            }
+    private void fall() {
+        world.getPlayer().move();
+        player.move();
+        draw();
+        if (!world.getPlayer().isTouchingGround()) {
+            gameLoop.postDelayed(fall, UPDATE_INTERVAL / 4);
+            return;
         }
+        saveReplay();
+        gameActivity.gameOver();
     }
 
     /**
-     * Creates a toast with a certain chance
+     * Draws either the spiders and logs or the power-ups,
+     * by binding the sprite of the kind to each entity in turn.
      */
-    private void createPowerUp() {
-        // Toast
-        if (gameActivity.accomplishmentBox.points >= Toast.POINTS_TO_TOAST /*&& powerUps.size() < 1*/ && !(player instanceof NyanCat)) {
-            // If no powerUp is present and you have more than / equal 42 points
-            if (gameActivity.accomplishmentBox.points == Toast.POINTS_TO_TOAST) {    // First time 100 % chance
-                powerUps.add(new Toast(this, gameActivity));
-            } else if (Math.random() * 100 < 33) {    // 33% chance
-                powerUps.add(new Toast(this, gameActivity));
+    private void drawEntities(Renderer renderer, boolean powerUps) {
+        EntityStore entities = world.getEntities();
+        for (int i = 0; i < entities.size(); i++) {
+            int kind = entities.getKind(i);
+            if ((kind >= EntityStore.TOAST) == powerUps) {
+                Sprite sprite = entitySprites[kind];
+                sprite.bind(entities, i);
+                sprite.draw(renderer);
             }
         }
+    }
 
-        if ((powerUps.size() < 1) && (Math.random() * 100 < 20)) {
-            // If no powerUp is present and 20% chance
-            powerUps.add(new Coin(this, gameActivity));
-        }
+    @Override
+    public void onTap() {
+        player.onTap();
+    }
 
-        if ((powerUps.size() < 1) && (Math.random() * 100 < 10)) {
-            // If no powerUp is present and 10% chance (if also no coin)
-            powerUps.add(new Virus(this, gameActivity));
-        }
+    @Override
+    public void onPass() {
+        obstacle.onPass();
     }
 
-    /**
-     * Checks whether the obstacles or powerUps are out of range and deletes them
-     */
-    private void checkOutOfRange() {
-        for (int i = 0; i < obstacles.size(); i++) {
-            if (this.obstacles.get(i).isOutOfRange()) {
-                this.obstacles.remove(i);
-                i--;
-            }
-        }
-        for (int i = 0; i < powerUps.size(); i++) {
-            if (this.powerUps.get(i).isOutOfRange()) {
-                this.powerUps.remove(i);
-                i--;
-            }
-        }
+    @Override
+    public void onCoin() {
+        coin.onCollision();
     }
 
-    /**
-     * Checks collisions and performs the action
-     */
-    private void checkCollision() {
-        for (Obstacle o : obstacles) {
-            if (o.isColliding(player)) {
-                o.onCollision();
-                gameOver();
-            }
-        }
-        for (int i = 0; i < powerUps.size(); i++) {
-            if (this.powerUps.get(i).isColliding(player)) {
-                this.powerUps.get(i).onCollision();
-                this.powerUps.remove(i);
-                i--;
-            }
-        }
-        if (player.isTouchingEdge()) {
-            gameOver();
-        }
+    @Override
+    public void onToast() {
+        toast.onCollision();
     }
 
-    /**
-     * if no obstacle is present a new one is created
-     */
-    private void createObstacle() {
-        if (obstacles.size() < 1) {
-            obstacles.add(new Obstacle(this, gameActivity));
-        }
+    @Override
+    public void onVirus() {
+        virus.onCollision();
+    }
+
+    @Override
+    public void onCrash() {
+        obstacle.onCollision();
     }
 
     /**
      * Update sprite movements
      */
     private void move() {
-        for (Obstacle o : obstacles) {
-            o.setSpeedX(-getSpeedX());
-            o.move();
-        }
-        for (PowerUp p : powerUps) {
-            p.move();
-        }
+        storePositions();
 
-        background.setSpeedX(-getSpeedX() / 2);
+        background.setSpeedX(-world.getSpeedX() / 2);
         background.move();
 
-        frontground.setSpeedX(-getSpeedX() * 4 / 3);
+        frontground.setSpeedX(-world.getSpeedX() * 4 / 3);
         frontground.move();
 
         pauseButton.move();
@@ -377,6 +660,15 @@ public class GameView extends SurfaceView {
         player.move();
     }
 
+    /**
+     * Remembers the current positions as the start points for the render interpolation.
+     */
+    private void storePositions() {
+        background.storePosition();
+        frontground.storePosition();
+        pauseButton.storePosition();
+    }
+
     /**
      * Changes the player to Nyan Cat
      */
@@ -384,12 +676,8 @@ public class GameView extends SurfaceView {
         gameActivity.accomplishmentBox.achievement_toastification = true;
         gameActivity.handler.sendMessage(Message.obtain(gameActivity.handler, 1, R.string.toast_achievement_toastification, GameActivity.MyHandler.SHOW_TOAST));
 
-        PlayableCharacter tmp = this.player;
-        this.player = new NyanCat(this, gameActivity);
-        this.player.setX(tmp.getX());
-        this.player.setY(tmp.getY());
-        this.player.setSpeedX(tmp.getSpeedX());
-        this.player.setSpeedY(tmp.getSpeedY());
+        this.player = new NyanCat(this, gameActivity, world.getPlayer());
+        this.player.move();
 
         gameActivity.musicShouldPlay = true;
         GameActivity.musicPlayer.start();
@@ -400,35 +688,72 @@ public class GameView extends SurfaceView {
     }
 
     /**
-     * return the speed of the obstacles/cow
+     * Let's the player fall down dead, makes sure the runcycle stops
+     * and invokes the next method for the dialog and stuff.
      */
-    public int getSpeedX() {
-        // 16 @ 720x1280 px
-        int speedDefault = this.getWidth() / 45;
+    public void gameOver() {
+        pause();
+        playerDeadFall();
+    }
 
-        // 1,2 every 4 points @ 720x1280 px
-        int speedIncrease = (int) (this.getWidth() / 600f * (gameActivity.accomplishmentBox.points / 4));
+    /**
+     * Writes the session so far to replayFile in the background, a revive will make it longer.
+     * The replay is serialized right away, recording goes on while it's written.
+     */
+    private void saveReplay() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            recorder.getReplay().write(bytes);
+        } catch (IOException e) {
+            Log.w("GameView", "Couldn't serialize the replay", e);
+            return;
+        }
 
-        int speed = speedDefault + speedIncrease;
+        writer.execute(() -> {
+            File dir = replayFile.getParentFile();
+            dir.mkdirs();
+            try (OutputStream out = new FileOutputStream(replayFile)) {
+                bytes.writeTo(out);
+            } catch (IOException e) {
+                Log.w("GameView", "Couldn't write " + replayFile, e);
+            }
 
-        return Math.min(speed, 2 * speedDefault);
+            // The masks only depend on the screen, so they are written once per screen
+            File masksFile = new File(dir, MASKS_PREFIX + Long.toHexString(masks.hash()) + MASKS_EXTENSION);
+            if (!masksFile.exists()) {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(masksFile)))) {
+                    masks.write(out);
+                } catch (IOException e) {
+                    Log.w("GameView", "Couldn't write " + masksFile, e);
+                }
+            }
+        });
     }
 
     /**
-     * Let's the player fall down dead, makes sure the runcycle stops
-     * and invokes the next method for the dialog and stuff.
+     * Adds the run to the history, once the player doesn't revive anymore.
      */
-    public void gameOver() {
-        pause();
-        playerDeadFall();
-        gameActivity.gameOver();
+    public void finishRun() {
+        gameLoop.post(this::addToHistory);
+    }
+
+    /**
+     * Takes the run from the world on the game loop, the activity writes it.
+     */
+    private void addToHistory() {
+        gameActivity.addToHistory(new Run(System.currentTimeMillis(),
+            (int) (recorder.getReplay().getTicks() * UPDATE_INTERVAL),
+            world.getPoints(),
+            world.getCoins(),
+            gameActivity.numberOfRevive - 1,
+            player instanceof NyanCat ? Run.NYAN_CAT : Run.COW));
     }
 
     public void revive() {
         gameActivity.numberOfRevive++;
 
-        // This needs to run another thread, so the dialog can close.
-        new Thread(this::setupRevive).start();
+        // This needs to run on the game loop, so the dialog can close.
+        gameLoop.post(this::setupRevive);
     }
 
     /**
@@ -438,23 +763,31 @@ public class GameView extends SurfaceView {
      */
     private void setupRevive() {
         gameActivity.gameOverDialog.hide();
-        player.setY(this.getHeight() / 2 - player.getWidth() / 2);
-        player.setX(this.getWidth() / 6);
-        obstacles.clear();
-        powerUps.clear();
+        world.revive();
+        recorder.onRevive();
         player.revive();
-        for (int i = 0; i < 6; ++i) {
-            while (!holder.getSurface().isValid()) {/*wait*/}
-            Canvas canvas = getCanvas();
-            drawCanvas(canvas, i % 2 == 0);
-            holder.unlockCanvasAndPost(canvas);
-            // sleep
-            try {
-                Thread.sleep(UPDATE_INTERVAL * 6);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+        interpolation = 1f;
+        blinking = true;
+        blinks = 0;
+        blink();
+    }
+
+    /**
+     * Shows the next blink frame, each one is scheduled on the game loop, so it keeps handling other work.
+     * Resumes the game after the last one.
+     */
+    private void blink() {
+        if (blinks < REVIVE_BLINKS) {
+            draw(blinks % 2 == 0);
+            blinks++;
+            gameLoop.postDelayed(blink, REVIVE_BLINK_MILLIS);
+            return;
         }
+        // Touches while the player was dead or blinking don't count
+        inputQueue.clear();
+        tickInput = World.INPUT_NONE;
+        tapLatency.clear();
+        blinking = false;
         resume();
     }
 
@@ -466,6 +799,29 @@ public class GameView extends SurfaceView {
         /*/ game.getResources().getDisplayMetrics().density)*/
     }
 
+    /**
+     * Time a tick simulates, the sprites move their speed times this per tick.
+     */
+    public float getTickSeconds() {
+        return UPDATE_INTERVAL / 1000f;
+    }
+
+    /**
+     * How far the current frame is between the last and the next tick.
+     * Sprites use it to interpolate their positions.
+     */
+    public float getInterpolation() {
+        return interpolation;
+    }
+
+    public TextureAtlas getTextureAtlas() {
+        return atlas;
+    }
+
+    public Textures getTextures() {
+        return textures;
+    }
+
     public PlayableCharacter getPlayer() {
         return this.player;
     }
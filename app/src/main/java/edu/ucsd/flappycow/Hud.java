@@ -0,0 +1,187 @@
+/**
+ * Hud
+ * The onscreen score and coins
+ * <p>
+ * The text is kept in a bitmap, a texture, that is only redrawn when the points or coins change.
+ * The numbers are copied from a glyph atlas, which is built once per text size.
+ */
+
+package edu.ucsd.flappycow;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import edu.ucsd.flappycow.core.Renderer;
+
+public class Hud {
+
+    /** Characters of the glyph atlas, the points can be negative */
+    private static final String GLYPHS = "0123456789-";
+    private static final int MINUS = 10;
+
+    private final GameView view;
+    private final GameActivity gameActivity;
+
+    private final Paint paint = new Paint();
+
+    /** Localized labels, including the spaces around the numbers */
+    private final String scoreLabel;
+    private final String coinLabel;
+    private float scoreLabelWidth;
+    private float coinLabelWidth;
+
+    /** Text size the atlas and the labels were built with */
+    private int textSize;
+
+    /** One glyph after the other, glyph i spans from glyphX[i] to glyphX[i + 1] */
+    private Bitmap atlas;
+    private final int[] glyphX = new int[GLYPHS.length() + 1];
+    private final float[] glyphAdvance = new float[GLYPHS.length()];
+
+    /** Top of the glyphs in the layer, so they sit on the baseline of the labels */
+    private int glyphTop;
+
+    /** The rendered hud, drawn every frame */
+    private Bitmap layer;
+    private Canvas layerCanvas;
+    private int texture = -1;
+
+    /** The values that are shown in the layer */
+    private int shownPoints;
+    private int shownCoins;
+    private boolean dirty = true;
+
+    private final int[] digits = new int[10];
+    private final Rect src = new Rect();
+    private final Rect dst = new Rect();
+
+    public Hud(GameView view, GameActivity gameActivity) {
+        this.view = view;
+        this.gameActivity = gameActivity;
+        this.paint.setColor(Color.BLACK);
+        this.scoreLabel = gameActivity.getResources().getString(R.string.onscreen_score_text) + " ";
+        this.coinLabel = " / " + gameActivity.getResources().getString(R.string.onscreen_coin_text) + " ";
+    }
+
+    /**
+     * Draws the score and the coins in the upper left corner.
+     * Doesn't allocate, unless the size of the view changed.
+     */
+    public void draw(Renderer renderer) {
+        int size = view.getScoreTextMetrics();
+        if (size <= 0) {
+            return;
+        }
+        if (size != textSize || layer.getWidth() != view.getWidth()) {
+            build(size, view.getWidth());
+        }
+
+        int points = gameActivity.accomplishmentBox.points;
+        int coins = gameActivity.coins;
+        if (dirty || points != shownPoints || coins != shownCoins) {
+            redraw(points, coins);
+            renderer.textureChanged(texture);
+        }
+        renderer.draw(texture, 0, 0, layer.getWidth(), layer.getHeight(),
+            0, 0, layer.getWidth(), layer.getHeight(), Renderer.LAYER_HUD);
+    }
+
+    /**
+     * Rasterizes the glyphs for the text size and creates the layer.
+     */
+    private void build(int size, int width) {
+        release();
+        textSize = size;
+        paint.setTextSize(size);
+        Paint.FontMetricsInt metrics = paint.getFontMetricsInt();
+
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            glyphAdvance[i] = paint.measureText(GLYPHS, i, i + 1);
+            glyphX[i + 1] = glyphX[i] + (int) Math.ceil(glyphAdvance[i]);
+        }
+        atlas = Bitmap.createBitmap(glyphX[GLYPHS.length()], metrics.descent - metrics.ascent, Bitmap.Config.ARGB_8888);
+        Canvas atlasCanvas = new Canvas(atlas);
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            atlasCanvas.drawText(GLYPHS, i, i + 1, glyphX[i], -metrics.ascent, paint);
+        }
+
+        scoreLabelWidth = paint.measureText(scoreLabel);
+        coinLabelWidth = paint.measureText(coinLabel);
+        glyphTop = size + metrics.ascent;
+
+        // The baseline is at the text size, like the score was always drawn
+        layer = Bitmap.createBitmap(Math.max(width, 1), size + metrics.descent, Bitmap.Config.ARGB_8888);
+        layerCanvas = new Canvas(layer);
+        if (texture < 0) {
+            texture = view.getTextures().add(layer);
+        } else {
+            view.getTextures().set(texture, layer);
+        }
+        dirty = true;
+    }
+
+    /**
+     * Renders the labels and the numbers into the layer.
+     */
+    private void redraw(int points, int coins) {
+        layer.eraseColor(Color.TRANSPARENT);
+
+        float x = 0;
+        layerCanvas.drawText(scoreLabel, x, textSize, paint);
+        x = drawNumber(points, x + scoreLabelWidth);
+        layerCanvas.drawText(coinLabel, x, textSize, paint);
+        drawNumber(coins, x + coinLabelWidth);
+
+        shownPoints = points;
+        shownCoins = coins;
+        dirty = false;
+    }
+
+    /**
+     * Copies the digits of the number from the atlas.
+     *
+     * @return x after the last digit
+     */
+    private float drawNumber(int number, float x) {
+        if (number < 0) {
+            x = drawGlyph(MINUS, x);
+        }
+        int count = 0;
+        do {
+            digits[count++] = Math.abs(number % 10);
+            number /= 10;
+        } while (number != 0);
+
+        while (count > 0) {
+            x = drawGlyph(digits[--count], x);
+        }
+        return x;
+    }
+
+    private float drawGlyph(int glyph, float x) {
+        int left = Math.round(x);
+        src.set(glyphX[glyph], 0, glyphX[glyph + 1], atlas.getHeight());
+        dst.set(left, glyphTop, left + src.width(), glyphTop + src.height());
+        layerCanvas.drawBitmap(atlas, src, dst, null);
+        return x + glyphAdvance[glyph];
+    }
+
+    /**
+     * Frees the bitmaps of the last text size.
+     */
+    private void release() {
+        if (atlas != null) {
+            atlas.recycle();
+            atlas = null;
+        }
+        if (layer != null) {
+            layer.recycle();
+            layer = null;
+            layerCanvas = null;
+        }
+        textSize = 0;
+    }
+}
@@ -8,7 +8,6 @@
 package edu.ucsd.flappycow;
 
 import android.app.Activity;
-import android.content.SharedPreferences;
 import android.os.Bundle;
 
 public class MainActivity extends Activity {
@@ -38,6 +37,12 @@ public class MainActivity extends Activity {
         view = new StartScreenView(this);
         setContentView(view);
         setSocket();
+
+        // Probably the game is started next
+        BitmapCache.getInstance(this).prefetch(R.drawable.bg, BitmapCache.DOWN_SCALED);
+        BitmapCache.getInstance(this).prefetch(R.drawable.fg, BitmapCache.DOWN_SCALED);
+        // Decodes the sound effects in the background
+        SoundEngine.getInstance(this);
     }
 
     public void muteToggle() {
@@ -55,8 +60,7 @@ public class MainActivity extends Activity {
      * Fills the socket with the medals that have already been collected.
      */
     private void setSocket() {
-        SharedPreferences saves = this.getSharedPreferences(MEDAL_SAVE, 0);
-        view.setSocket(saves.getInt(MEDAL_KEY, 0));
+        view.setSocket(SaveStore.getInstance(this).getMedal());
         view.invalidate();
     }
 
@@ -0,0 +1,206 @@
+/**
+ * PixelCache
+ * The decoded and scaled pixels of the resources on disk, so later launches skip inflating and scaling the PNGs
+ * <p>
+ * Every bitmap is a raw file in the cache directory, named by the resource, the scale and the display.
+ * It's memory-mapped and copied into a new bitmap.
+ * The files are kept per installation of the app, an update may change the resources,
+ * so the files of other installations are deleted.
+ */
+
+package edu.ucsd.flappycow;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.graphics.Bitmap;
+import android.util.DisplayMetrics;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class PixelCache {
+
+    /** Directory in the app's cache dir */
+    public static final String DIR = "pixels";
+
+    private static final int MAGIC = 0x46435058;    // "FCPX"
+
+    /** magic, width, height, config, density, has alpha */
+    private static final int HEADER = 24;
+
+    /** The configs that are cached, the index is stored */
+    private static final Bitmap.Config[] CONFIGS = {
+        Bitmap.Config.ALPHA_8,
+        Bitmap.Config.RGB_565,
+        Bitmap.Config.ARGB_8888,
+    };
+
+    private static PixelCache instance;
+
+    private final Context context;
+    private final File dir;
+
+    /** Writes the files, so decoding isn't slowed down */
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+
+    public static synchronized PixelCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new PixelCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private PixelCache(Context context) {
+        this.context = context;
+        final File root = new File(context.getCacheDir(), DIR);
+        this.dir = new File(root, Long.toString(installTime(context)));
+        writer.execute(() -> deleteOthers(root));
+    }
+
+    /**
+     * Changes with every update of the app, and so with its resources.
+     */
+    private static long installTime(Context context) {
+        try {
+            return context.getPackageManager().getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the bitmap of the resource from the disk.
+     * If it isn't there, it's decoded and written in the background.
+     *
+     * @param scale BitmapCache.UNSCALED, SCALED or DOWN_SCALED
+     */
+    public Bitmap get(int id, int scale) {
+        File file = file(id, scale);
+        Bitmap bitmap = read(file);
+        if (bitmap == null) {
+            bitmap = decode(id, scale);
+            write(file, bitmap);
+        }
+        return bitmap;
+    }
+
+    private Bitmap decode(int id, int scale) {
+        switch (scale) {
+            case BitmapCache.SCALED:
+                return Util.getScaledBitmapAlpha8(context, id);
+            case BitmapCache.DOWN_SCALED:
+                return Util.getDownScaledBitmapAlpha8(context, id);
+            default:
+                return Util.getBitmapAlpha8(context, id);
+        }
+    }
+
+    /**
+     * The scale factor depends on the height of the screen, the bitmap density on the dpi.
+     */
+    private File file(int id, int scale) {
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        return new File(dir, Integer.toHexString(id) + "_" + scale
+            + "_" + metrics.heightPixels + "_" + metrics.densityDpi + ".px");
+    }
+
+    /**
+     * @return null, if the file doesn't exist or isn't valid
+     */
+    private Bitmap read(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            FileChannel channel = in.getChannel();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() >= HEADER && buffer.getInt(0) == MAGIC) {
+                int width = buffer.getInt(4);
+                int height = buffer.getInt(8);
+                int config = buffer.getInt(12);
+                if (width > 0 && height > 0 && config >= 0 && config < CONFIGS.length) {
+                    Bitmap bitmap = Bitmap.createBitmap(width, height, CONFIGS[config]);
+                    if (buffer.capacity() == HEADER + bitmap.getByteCount()) {
+                        buffer.position(HEADER);
+                        bitmap.copyPixelsFromBuffer(buffer);
+                        bitmap.setDensity(buffer.getInt(16));
+                        bitmap.setHasAlpha(buffer.getInt(20) != 0);
+                        return bitmap;
+                    }
+                    bitmap.recycle();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Log.w("PixelCache", "Couldn't read " + file, e);
+        }
+        file.delete();
+        return null;
+    }
+
+    /**
+     * Copies the pixels, the bitmap may be recycled before they are written.
+     */
+    private void write(final File file, Bitmap bitmap) {
+        int config = -1;
+        for (int i = 0; i < CONFIGS.length; i++) {
+            if (CONFIGS[i] == bitmap.getConfig()) {
+                config = i;
+            }
+        }
+        if (config < 0) {
+            return;
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER + bitmap.getByteCount());
+        buffer.putInt(MAGIC)
+            .putInt(bitmap.getWidth())
+            .putInt(bitmap.getHeight())
+            .putInt(config)
+            .putInt(bitmap.getDensity())
+            .putInt(bitmap.hasAlpha() ? 1 : 0);
+        bitmap.copyPixelsToBuffer(buffer);
+
+        writer.execute(() -> {
+            // Renamed when complete, so a file is never read half written
+            File temp = new File(file.getPath() + ".tmp");
+            dir.mkdirs();
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                out.write(buffer.array(), 0, buffer.position());
+            } catch (IOException e) {
+                Log.w("PixelCache", "Couldn't write " + temp, e);
+                return;
+            }
+            if (!temp.renameTo(file)) {
+                Log.w("PixelCache", "Couldn't rename " + temp);
+            }
+        });
+    }
+
+    /**
+     * Deletes the files of other installations of the app.
+     */
+    private void deleteOthers(File root) {
+        File[] dirs = root.listFiles();
+        if (dirs == null) {
+            return;
+        }
+        for (File other : dirs) {
+            if (other.equals(dir)) {
+                continue;
+            }
+            File[] files = other.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            other.delete();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * ProfilerOverlay
+ * Shows the percentiles of the phases of the Profiler on top of the game
+ * <p>
+ * Debug only. The text is rebuilt twice a second, not every frame,
+ * and rendered into a bitmap that is drawn as a texture.
+ */
+
+package edu.ucsd.flappycow;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+import java.util.Locale;
+
+import edu.ucsd.flappycow.core.Histogram;
+import edu.ucsd.flappycow.core.Profiler;
+import edu.ucsd.flappycow.core.Renderer;
+
+public class ProfilerOverlay {
+
+    /** How often the text is rebuilt */
+    private static final long REFRESH_NANOS = 500_000_000L;
+
+    private final Profiler profiler;
+    private final Textures textures;
+    private final Paint textPaint = new Paint();
+    private final int backgroundColor = Color.argb(160, 0, 0, 0);
+
+    /** Header and one line per phase */
+    private final String[] lines = new String[Profiler.PHASES + 1];
+    private long lastRefresh;
+
+    /** The rendered table */
+    private Bitmap bitmap;
+    private Canvas bitmapCanvas;
+    private int texture = -1;
+
+    public ProfilerOverlay(Profiler profiler, int textSize, Textures textures) {
+        this.profiler = profiler;
+        this.textures = textures;
+        this.textPaint.setColor(Color.WHITE);
+        this.textPaint.setTypeface(Typeface.MONOSPACE);
+        this.textPaint.setTextSize(textSize);
+        this.lines[0] = String.format(Locale.US, "%-19s %7s %7s %7s %7s", "µs", "p50", "p95", "p99", "max");
+    }
+
+    /**
+     * Draws the table into the lower left corner of a screen with the given size.
+     */
+    public void draw(Renderer renderer, int width, int height) {
+        boolean built = false;
+        if (bitmap == null || bitmap.getWidth() != width) {
+            build(width);
+            built = true;
+        }
+        long now = System.nanoTime();
+        if (built || now - lastRefresh >= REFRESH_NANOS) {
+            refresh();
+            render();
+            renderer.textureChanged(texture);
+            lastRefresh = now;
+        }
+        renderer.draw(texture, 0, 0, bitmap.getWidth(), bitmap.getHeight(),
+            0, height - bitmap.getHeight(), width, height, Renderer.LAYER_OVERLAY);
+    }
+
+    private void build(int width) {
+        int height = (int) Math.ceil(textPaint.getFontSpacing() * lines.length);
+        bitmap = Bitmap.createBitmap(Math.max(width, 1), height, Bitmap.Config.ARGB_8888);
+        bitmapCanvas = new Canvas(bitmap);
+        if (texture < 0) {
+            texture = textures.add(bitmap);
+        } else {
+            textures.set(texture, bitmap);
+        }
+    }
+
+    private void render() {
+        bitmap.eraseColor(backgroundColor);
+        float lineHeight = textPaint.getFontSpacing();
+        for (int i = 0; i < lines.length; i++) {
+            bitmapCanvas.drawText(lines[i], 0, lineHeight * (i + 1) - textPaint.descent(), textPaint);
+        }
+    }
+
+    private void refresh() {
+        for (int i = 0; i < Profiler.PHASES; i++) {
+            Histogram h = profiler.getHistogram(i);
+            lines[i + 1] = String.format(Locale.US, "%-19s %7.0f %7.0f %7.0f %7.0f", Profiler.getName(i),
+                h.getValueAtPercentile(50) / 1000f, h.getValueAtPercentile(95) / 1000f,
+                h.getValueAtPercentile(99) / 1000f, h.getMax() / 1000f);
+        }
+    }
+}
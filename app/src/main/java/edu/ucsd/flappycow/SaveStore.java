@@ -0,0 +1,288 @@
+/**
+ * SaveStore
+ * Coins, best score, medals and achievements in one file
+ * <p>
+ * Loaded once into memory. Changes only touch memory and schedule a write,
+ * so changes that come close together are written at once, on a background thread.
+ * The file is written to a temporary file, synced and renamed over the old one,
+ * so a crash leaves either the old or the new state, never a mix.
+ * The old file is kept as a backup, which is loaded when the file is corrupt.
+ * Replaces the SharedPreferences coin_save, score_save, medal_save and achivements,
+ * which are imported when there is no file yet.
+ */
+
+package edu.ucsd.flappycow;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+public class SaveStore {
+
+    public static final String FILE_NAME = "save.bin";
+
+    /** Flags of getAchievements() */
+    public static final int ACHIEVEMENT_50_COINS = 1;
+    public static final int ACHIEVEMENT_TOASTIFICATION = 1 << 1;
+    public static final int ACHIEVEMENT_BRONZE = 1 << 2;
+    public static final int ACHIEVEMENT_SILVER = 1 << 3;
+    public static final int ACHIEVEMENT_GOLD = 1 << 4;
+
+    private static final int MAGIC = 0x46435356;    // "FCSV"
+    private static final int VERSION = 1;
+
+    /** Changes within this time are written together */
+    private static final long WRITE_DELAY_MILLIS = 500;
+
+    private static SaveStore instance;
+
+    private final File file;
+    private final File backup;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private boolean writeScheduled;
+
+    private int coins;
+    private int bestScore;
+
+    /** 0 none, 1 bronze, 2 silver, 3 gold */
+    private int medal;
+
+    /** Best points of the achievements, see AchievementBox */
+    private int achievementPoints;
+    private int achievements;
+
+    public static synchronized SaveStore getInstance(Context context) {
+        if (instance == null) {
+            Context app = context.getApplicationContext();
+            instance = new SaveStore(new File(app.getFilesDir(), FILE_NAME));
+            if (!instance.exists()) {
+                instance.importPreferences(app);
+            } else if (!instance.load()) {
+                Log.w("SaveStore", "Neither " + instance.file + " nor its backup is valid, starting over");
+            }
+        }
+        return instance;
+    }
+
+    SaveStore(File file) {
+        this.file = file;
+        this.backup = new File(file.getPath() + ".bak");
+    }
+
+    public synchronized int getCoins() {
+        return coins;
+    }
+
+    public synchronized void setCoins(int coins) {
+        this.coins = coins;
+        changed();
+    }
+
+    public synchronized int getBestScore() {
+        return bestScore;
+    }
+
+    public synchronized void setBestScore(int bestScore) {
+        this.bestScore = bestScore;
+        changed();
+    }
+
+    public synchronized int getMedal() {
+        return medal;
+    }
+
+    public synchronized void setMedal(int medal) {
+        this.medal = medal;
+        changed();
+    }
+
+    public synchronized int getAchievementPoints() {
+        return achievementPoints;
+    }
+
+    /**
+     * ACHIEVEMENT_* flags
+     */
+    public synchronized int getAchievements() {
+        return achievements;
+    }
+
+    /**
+     * Adds the achievements and keeps the points, if they are the best.
+     */
+    public synchronized void addAchievements(int points, int achievements) {
+        this.achievementPoints = Math.max(this.achievementPoints, points);
+        this.achievements |= achievements;
+        changed();
+    }
+
+    private void changed() {
+        if (!writeScheduled) {
+            writeScheduled = true;
+            executor.schedule(this::write, WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes the pending changes right away and waits for them, e.g. when the app goes to the background.
+     * Like Android waits for SharedPreferences.apply() in onPause().
+     */
+    public void flush() {
+        synchronized (this) {
+            if (!writeScheduled) {
+                return;
+            }
+        }
+        try {
+            executor.submit(this::write).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Log.w("SaveStore", "Couldn't flush", e);
+        }
+    }
+
+    /**
+     * Writes the state to a temporary file, moves the file to the backup and the temporary file in its place.
+     * Runs on the executor only, a write that was already done by flush() does nothing.
+     */
+    private void write() {
+        byte[] bytes;
+        synchronized (this) {
+            if (!writeScheduled) {
+                return;
+            }
+            writeScheduled = false;
+            bytes = serialize();
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(bytes);
+            out.getFD().sync();
+        } catch (IOException e) {
+            Log.w("SaveStore", "Couldn't write " + temp, e);
+            return;
+        }
+        if (file.exists() && !file.renameTo(backup)) {
+            Log.w("SaveStore", "Couldn't back up " + file);
+        }
+        if (!temp.renameTo(file)) {
+            Log.w("SaveStore", "Couldn't rename " + temp);
+        }
+    }
+
+    private byte[] serialize() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(coins);
+            out.writeInt(bestScore);
+            out.writeInt(medal);
+            out.writeInt(achievementPoints);
+            out.writeInt(achievements);
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeLong(crc.getValue());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return false, if there was never a file written, not even the backup
+     */
+    synchronized boolean exists() {
+        return file.exists() || backup.exists();
+    }
+
+    /**
+     * Loads the file, or the backup if the file is missing or corrupt.
+     *
+     * @return false, if neither is valid
+     */
+    synchronized boolean load() {
+        return load(file) || load(backup);
+    }
+
+    private boolean load(File file) {
+        if (!file.exists()) {
+            return false;
+        }
+        byte[] bytes = new byte[(int) file.length()];
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            in.readFully(bytes);
+        } catch (IOException e) {
+            Log.w("SaveStore", "Couldn't read " + file, e);
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return false;
+            }
+            int coins = in.readInt();
+            int bestScore = in.readInt();
+            int medal = in.readInt();
+            int achievementPoints = in.readInt();
+            int achievements = in.readInt();
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - Long.BYTES);
+            if (in.readLong() != crc.getValue()) {
+                return false;
+            }
+            this.coins = coins;
+            this.bestScore = bestScore;
+            this.medal = medal;
+            this.achievementPoints = achievementPoints;
+            this.achievements = achievements;
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Takes over what the older versions saved in SharedPreferences
+     * and writes the file, so they are only imported once.
+     */
+    private synchronized void importPreferences(Context context) {
+        coins = context.getSharedPreferences(GameActivity.coin_save, 0).getInt(GameActivity.coin_key, 0);
+        bestScore = context.getSharedPreferences(GameOverDialog.score_save_name, 0).getInt(GameOverDialog.best_score_key, 0);
+        medal = context.getSharedPreferences(MainActivity.MEDAL_SAVE, 0).getInt(MainActivity.MEDAL_KEY, 0);
+
+        SharedPreferences saves = context.getSharedPreferences(AchievementBox.SAVE_NAME, 0);
+        achievementPoints = saves.getInt(AchievementBox.KEY_POINTS, 0);
+        achievements = 0;
+        if (saves.getBoolean(AchievementBox.ACHIEVEMENT_KEY_50_COINS, false)) {
+            achievements |= ACHIEVEMENT_50_COINS;
+        }
+        if (saves.getBoolean(AchievementBox.ACHIEVEMENT_KEY_TOASTIFICATION, false)) {
+            achievements |= ACHIEVEMENT_TOASTIFICATION;
+        }
+        if (saves.getBoolean(AchievementBox.ACHIEVEMENT_KEY_BRONZE, false)) {
+            achievements |= ACHIEVEMENT_BRONZE;
+        }
+        if (saves.getBoolean(AchievementBox.ACHIEVEMENT_KEY_SILVER, false)) {
+            achievements |= ACHIEVEMENT_SILVER;
+        }
+        if (saves.getBoolean(AchievementBox.ACHIEVEMENT_KEY_GOLD, false)) {
+            achievements |= ACHIEVEMENT_GOLD;
+        }
+        changed();
+    }
+}
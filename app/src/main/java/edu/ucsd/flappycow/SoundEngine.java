@@ -0,0 +1,361 @@
+/**
+ * SoundEngine
+ * Plays the sound effects on its own audio thread, the game thread only queues them
+ * <p>
+ * All effects are decoded to mono PCM at the output sample rate once, when the engine starts.
+ * The audio thread mixes the playing effects into a low latency AudioTrack, one burst at a time.
+ * A play is a command in a lock-free ring, so playing never blocks and never allocates.
+ * An effect that isn't decoded yet is skipped, instead of waiting for it.
+ */
+
+package edu.ucsd.flappycow;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.media.AudioAttributes;
+import android.media.AudioFormat;
+import android.media.AudioManager;
+import android.media.AudioTrack;
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.os.Process;
+import android.util.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public class SoundEngine extends Thread {
+
+    /** The effects */
+    public static final int COW = 0;
+    public static final int COIN = 1;
+    public static final int CRASH = 2;
+    public static final int PASS = 3;
+
+    private static final int[] RESOURCES = {
+        R.raw.cow,
+        R.raw.coin,
+        R.raw.crash,
+        R.raw.pass,
+    };
+
+    /** Effects that play at the same time, a new one replaces the one that played longest */
+    private static final int MAX_VOICES = 8;
+
+    /** Plays that may wait for the next burst */
+    private static final int MAX_COMMANDS = 32;
+
+    /** Plays that waited longer, e.g. while the effects were decoded, are dropped */
+    private static final long MAX_COMMAND_AGE_NANOS = 100 * 1000000L;
+
+    private static final int DEFAULT_SAMPLE_RATE = 48000;
+    private static final int DEFAULT_BURST = 256;
+
+    private static final long DECODE_TIMEOUT_US = 10000;
+
+    private static SoundEngine instance;
+
+    private final Context context;
+    private final int sampleRate;
+
+    /** Frames the mixer writes at once, the native burst of the output */
+    private final int burst;
+
+    /** The decoded effects, an entry is set once it's decoded */
+    private final short[][] samples = new short[RESOURCES.length][];
+
+    /** The play commands, from the game thread to the audio thread */
+    private final int[] commandSounds = new int[MAX_COMMANDS];
+    private final float[] commandVolumes = new float[MAX_COMMANDS];
+    private final long[] commandTimes = new long[MAX_COMMANDS];
+    private final AtomicLong commandsWritten = new AtomicLong();
+    private final AtomicLong commandsRead = new AtomicLong();
+
+    /** The game thread's copy of commandsRead */
+    private long commandsReadByGame;
+
+    /** The playing effects, only touched by the audio thread */
+    private final int[] voiceSounds = new int[MAX_VOICES];
+    private final int[] voicePositions = new int[MAX_VOICES];
+    private final float[] voiceVolumes = new float[MAX_VOICES];
+
+    /** Whether a game is shown, otherwise the track is stopped and the thread waits */
+    private volatile boolean resumed;
+
+    public static synchronized SoundEngine getInstance(Context context) {
+        if (instance == null) {
+            instance = new SoundEngine(context.getApplicationContext());
+            instance.start();
+        }
+        return instance;
+    }
+
+    private SoundEngine(Context context) {
+        super("SoundEngine");
+        this.context = context;
+        AudioManager audioManager = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
+        this.sampleRate = parse(audioManager.getProperty(AudioManager.PROPERTY_OUTPUT_SAMPLE_RATE), DEFAULT_SAMPLE_RATE);
+        this.burst = parse(audioManager.getProperty(AudioManager.PROPERTY_OUTPUT_FRAMES_PER_BUFFER), DEFAULT_BURST);
+        Arrays.fill(voiceSounds, -1);
+        setDaemon(true);
+    }
+
+    private static int parse(String property, int fallback) {
+        try {
+            return property == null ? fallback : Integer.parseInt(property);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Queues the effect, only called by the game thread, one game at a time.
+     * Nothing is played while the engine is paused.
+     *
+     * @param volume 0 to 1
+     */
+    public void play(int sound, float volume) {
+        if (!resumed || volume <= 0) {
+            return;
+        }
+        long w = commandsWritten.get();
+        if (w - commandsReadByGame >= MAX_COMMANDS) {
+            commandsReadByGame = commandsRead.get();
+            if (w - commandsReadByGame >= MAX_COMMANDS) {
+                return;
+            }
+        }
+        int i = (int) (w % MAX_COMMANDS);
+        commandSounds[i] = sound;
+        commandVolumes[i] = volume;
+        commandTimes[i] = System.nanoTime();
+        commandsWritten.lazySet(w + 1);
+    }
+
+    /**
+     * Starts the track, when a game is shown.
+     */
+    public void resumeSounds() {
+        resumed = true;
+        LockSupport.unpark(this);
+    }
+
+    /**
+     * Stops the track with the next burst, when the game isn't shown anymore.
+     */
+    public void pauseSounds() {
+        resumed = false;
+    }
+
+    @Override
+    public void run() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_URGENT_AUDIO);
+        for (int sound = 0; sound < RESOURCES.length; sound++) {
+            try {
+                samples[sound] = decode(RESOURCES[sound]);
+            } catch (IOException | RuntimeException e) {
+                Log.w("SoundEngine", "Couldn't decode sound " + sound, e);
+            }
+        }
+
+        AudioTrack track = createTrack();
+        short[] buffer = new short[burst];
+        int[] mix = new int[burst];
+        while (true) {
+            if (!resumed) {
+                if (track.getPlayState() == AudioTrack.PLAYSTATE_PLAYING) {
+                    track.pause();
+                    track.flush();
+                }
+                Arrays.fill(voiceSounds, -1);
+                LockSupport.park(this);
+                continue;
+            }
+            if (track.getPlayState() != AudioTrack.PLAYSTATE_PLAYING) {
+                track.play();
+            }
+            startVoices(System.nanoTime());
+            mix(mix, buffer);
+            // Blocks until there is room, that paces the loop
+            track.write(buffer, 0, burst);
+        }
+    }
+
+    private AudioTrack createTrack() {
+        int minBuffer = AudioTrack.getMinBufferSize(sampleRate, AudioFormat.CHANNEL_OUT_MONO,
+            AudioFormat.ENCODING_PCM_16BIT);
+        return new AudioTrack.Builder()
+            .setAudioAttributes(new AudioAttributes.Builder()
+                .setUsage(AudioAttributes.USAGE_GAME)
+                .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                .build())
+            .setAudioFormat(new AudioFormat.Builder()
+                .setEncoding(AudioFormat.ENCODING_PCM_16BIT)
+                .setSampleRate(sampleRate)
+                .setChannelMask(AudioFormat.CHANNEL_OUT_MONO)
+                .build())
+            .setPerformanceMode(AudioTrack.PERFORMANCE_MODE_LOW_LATENCY)
+            .setTransferMode(AudioTrack.MODE_STREAM)
+            // Two bursts, so one can be written while the other plays
+            .setBufferSizeInBytes(Math.max(minBuffer, 2 * burst * 2))
+            .build();
+    }
+
+    /**
+     * Starts a voice for every queued play.
+     */
+    private void startVoices(long now) {
+        long r = commandsRead.get();
+        long w = commandsWritten.get();
+        for (; r < w; r++) {
+            int i = (int) (r % MAX_COMMANDS);
+            int sound = commandSounds[i];
+            float volume = commandVolumes[i];
+            long time = commandTimes[i];
+            commandsRead.lazySet(r + 1);
+            if (samples[sound] != null && now - time <= MAX_COMMAND_AGE_NANOS) {
+                int voice = freeVoice();
+                voiceSounds[voice] = sound;
+                voicePositions[voice] = 0;
+                voiceVolumes[voice] = volume;
+            }
+        }
+    }
+
+    /**
+     * A voice that doesn't play, or the one that played longest.
+     */
+    private int freeVoice() {
+        int oldest = 0;
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (voiceSounds[v] < 0) {
+                return v;
+            }
+            if (voicePositions[v] > voicePositions[oldest]) {
+                oldest = v;
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * Adds up the next burst of all voices, clipped to 16 bit.
+     */
+    private void mix(int[] mix, short[] buffer) {
+        Arrays.fill(mix, 0);
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (voiceSounds[v] < 0) {
+                continue;
+            }
+            short[] sound = samples[voiceSounds[v]];
+            int position = voicePositions[v];
+            int frames = Math.min(burst, sound.length - position);
+            float volume = voiceVolumes[v];
+            for (int i = 0; i < frames; i++) {
+                mix[i] += (int) (sound[position + i] * volume);
+            }
+            voicePositions[v] = position + frames;
+            if (voicePositions[v] == sound.length) {
+                voiceSounds[v] = -1;
+            }
+        }
+        for (int i = 0; i < burst; i++) {
+            buffer[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+        }
+    }
+
+    /**
+     * Decodes the resource to mono 16 bit PCM at the output sample rate.
+     */
+    private short[] decode(int id) throws IOException {
+        MediaExtractor extractor = new MediaExtractor();
+        try (AssetFileDescriptor fd = context.getResources().openRawResourceFd(id)) {
+            extractor.setDataSource(fd.getFileDescriptor(), fd.getStartOffset(), fd.getLength());
+        }
+        extractor.selectTrack(0);
+        MediaFormat format = extractor.getTrackFormat(0);
+        MediaCodec codec = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+        codec.configure(format, null, null, 0);
+        codec.start();
+
+        int channels = format.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+        int rate = format.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+        short[] pcm = new short[rate];
+        int length = 0;
+        MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+        boolean inputDone = false;
+        try {
+            while (true) {
+                if (!inputDone) {
+                    int in = codec.dequeueInputBuffer(DECODE_TIMEOUT_US);
+                    if (in >= 0) {
+                        int size = extractor.readSampleData(codec.getInputBuffer(in), 0);
+                        if (size < 0) {
+                            codec.queueInputBuffer(in, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            inputDone = true;
+                        } else {
+                            codec.queueInputBuffer(in, 0, size, extractor.getSampleTime(), 0);
+                            extractor.advance();
+                        }
+                    }
+                }
+                int out = codec.dequeueOutputBuffer(info, DECODE_TIMEOUT_US);
+                if (out == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                    MediaFormat output = codec.getOutputFormat();
+                    channels = output.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+                    rate = output.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+                } else if (out >= 0) {
+                    ByteBuffer bytes = codec.getOutputBuffer(out);
+                    bytes.position(info.offset);
+                    bytes.limit(info.offset + info.size);
+                    ShortBuffer shorts = bytes.slice().order(ByteOrder.nativeOrder()).asShortBuffer();
+                    int count = shorts.remaining();
+                    if (length + count > pcm.length) {
+                        pcm = Arrays.copyOf(pcm, Math.max(2 * pcm.length, length + count));
+                    }
+                    shorts.get(pcm, length, count);
+                    length += count;
+                    codec.releaseOutputBuffer(out, false);
+                    if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            codec.stop();
+            codec.release();
+            extractor.release();
+        }
+        return resample(pcm, length / channels, channels, rate);
+    }
+
+    /**
+     * Mixes the channels down and interpolates linearly to the output sample rate.
+     */
+    private short[] resample(short[] pcm, int frames, int channels, int rate) {
+        float[] mono = new float[frames + 1];
+        for (int f = 0; f < frames; f++) {
+            int sum = 0;
+            for (int c = 0; c < channels; c++) {
+                sum += pcm[f * channels + c];
+            }
+            mono[f] = (float) sum / channels;
+        }
+        int length = (int) ((long) frames * sampleRate / rate);
+        short[] result = new short[length];
+        double step = (double) rate / sampleRate;
+        for (int i = 0; i < length; i++) {
+            double at = i * step;
+            int f = (int) at;
+            float t = (float) (at - f);
+            result[i] = (short) (mono[f] + (mono[f + 1] - mono[f]) * t);
+        }
+        return result;
+    }
+}
@@ -18,11 +18,11 @@ import edu.ucsd.flappycow.R;
 
 public class StartScreenView extends View {
 
-    private static Bitmap splash = null;
-    private static Bitmap play = null;
-    private static Bitmap speaker = null;
-    private static Bitmap info = null;
-    private static Bitmap socket = null;
+    private final Bitmap splash;
+    private final Bitmap play;
+    private final Bitmap speaker;
+    private final Bitmap info;
+    private final Bitmap socket;
 
     // Button regions: left, top, right, bottom
     private final static float[] REGION_PLAY = {169 / 720.0f, 515 / 1280f, 553 / 720.0f, 699 / 1280.0f};
@@ -47,28 +47,19 @@ public class StartScreenView extends View {
     public StartScreenView(Context context) {
         super(context);
         this.context = context;
-        if (splash == null) {
-            splash = Util.getBitmapAlpha8(context, R.drawable.splash);
-        }
+        BitmapCache cache = BitmapCache.getInstance(context);
+        splash = cache.get(R.drawable.splash, BitmapCache.UNSCALED);
         srcSplash = new Rect(0, 0, splash.getWidth(), splash.getHeight());
 
-        if (play == null) {
-            play = Util.getBitmapAlpha8(context, R.drawable.play_button);
-        }
+        play = cache.get(R.drawable.play_button, BitmapCache.UNSCALED);
         srcPlay = new Rect(0, 0, play.getWidth(), play.getHeight());
 
-        if (speaker == null) {
-            speaker = Util.getBitmapAlpha8(context, R.drawable.speaker);
-        }
+        speaker = cache.get(R.drawable.speaker, BitmapCache.UNSCALED);
 
-        if (info == null) {
-            info = Util.getBitmapAlpha8(context, R.drawable.about);
-        }
+        info = cache.get(R.drawable.about, BitmapCache.UNSCALED);
 
         srcInfo = new Rect(0, 0, info.getWidth(), info.getHeight());
-        if (socket == null) {
-            socket = Util.getBitmapAlpha8(context, R.drawable.socket);
-        }
+        socket = cache.get(R.drawable.socket, BitmapCache.UNSCALED);
 
         setWillNotDraw(false);
         setSpeaker(true);
@@ -0,0 +1,262 @@
+/**
+ * TextureAtlas
+ * The sprite sheets of the game, packed onto as few bitmaps as possible
+ * <p>
+ * The sheets are scaled to the screen, so the atlas is packed on the first use.
+ * It's kept until the system is low on memory.
+ * Background and frontground aren't part of it, they're as wide as several screens.
+ */
+
+package edu.ucsd.flappycow;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.ucsd.flappycow.core.CollisionMask;
+
+public class TextureAtlas {
+
+    public static final String COW = "cow";
+    public static final String NYAN_CAT = "nyan_cat";
+    public static final String RAINBOW = "rainbow";
+    public static final String COIN = "coin";
+    public static final String TOAST = "toast";
+    public static final String VIRUS = "virus";
+    public static final String SPIDER = "spider_full";
+    public static final String LOG = "log_full";
+    public static final String ACCESSORY_SCUMBAG = "accessory_scumbag";
+    public static final String ACCESSORY_SIR = "accessory_sir";
+    public static final String ACCESSORY_SUNGLASSES = "accessory_sunglasses";
+    public static final String MASK = "mask";
+    public static final String TUTORIAL = "tutorial";
+    public static final String PAUSE_BUTTON = "pause_button";
+
+    /**
+     * The manifest: every sheet of the atlas with the frames it has
+     */
+    private static final Entry[] ENTRIES = {
+        new Entry(COW, R.drawable.cow, 8, 4),
+        new Entry(NYAN_CAT, R.drawable.nyan_cat, 1, 2),
+        new Entry(RAINBOW, R.drawable.rainbow, 4, 3),
+        new Entry(COIN, R.drawable.coin, 12, 1),
+        new Entry(TOAST, R.drawable.toast, 1, 1),
+        new Entry(VIRUS, R.drawable.virus, 1, 1),
+        new Entry(SPIDER, R.drawable.spider_full, 1, 1),
+        new Entry(LOG, R.drawable.log_full, 1, 1),
+        new Entry(ACCESSORY_SCUMBAG, R.drawable.accessory_scumbag, 1, 1),
+        new Entry(ACCESSORY_SIR, R.drawable.accessory_sir, 1, 1),
+        new Entry(ACCESSORY_SUNGLASSES, R.drawable.accessory_sunglasses, 1, 1),
+        new Entry(MASK, R.drawable.mask, 1, 1),
+        new Entry(TUTORIAL, R.drawable.tutorial, 1, 1),
+        new Entry(PAUSE_BUTTON, R.drawable.pause_button, 1, 1),
+    };
+
+    /** Largest page, most GPUs can't take bigger textures */
+    private static final int MAX_PAGE_SIZE = 4096;
+
+    /** Empty pixels between two sheets, so filtering doesn't bleed into the neighbour */
+    private static final int PADDING = 2;
+
+    private static TextureAtlas instance;
+
+    private final Map<String, Region> regions = new HashMap<String, Region>();
+    private final List<Bitmap> pages = new ArrayList<Bitmap>();
+
+    /**
+     * Returns the atlas, packs it the first time.
+     */
+    public static synchronized TextureAtlas getInstance(Context context) {
+        if (instance == null) {
+            instance = new TextureAtlas(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Forgets the atlas, the next getInstance() packs a new one.
+     * Views that still use it keep it alive.
+     */
+    public static synchronized void release() {
+        instance = null;
+    }
+
+    private TextureAtlas(Context context) {
+        final Bitmap[] sheets = new Bitmap[ENTRIES.length];
+        long area = 0;
+        int widest = 0;
+        for (int i = 0; i < ENTRIES.length; i++) {
+            sheets[i] = PixelCache.getInstance(context).get(ENTRIES[i].drawable, BitmapCache.SCALED);
+            area += (long) (sheets[i].getWidth() + PADDING) * (sheets[i].getHeight() + PADDING);
+            widest = Math.max(widest, sheets[i].getWidth() + PADDING);
+        }
+
+        // Tallest first
+        Integer[] order = new Integer[ENTRIES.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return sheets[b].getHeight() - sheets[a].getHeight();
+            }
+        });
+
+        // Roughly square pages
+        int pageWidth = Integer.highestOneBit((int) Math.ceil(Math.sqrt(area)) - 1) << 1;
+        pageWidth = Math.min(Math.max(pageWidth, widest), MAX_PAGE_SIZE);
+
+        int[] page = new int[ENTRIES.length];
+        int[][] positions = new int[ENTRIES.length][2];
+        List<int[]> pageSizes = new ArrayList<int[]>();
+        AtlasPacker packer = new AtlasPacker(pageWidth, MAX_PAGE_SIZE, PADDING);
+        for (int i : order) {
+            Bitmap sheet = sheets[i];
+            if (!packer.add(sheet.getWidth(), sheet.getHeight(), positions[i])) {
+                pageSizes.add(new int[]{packer.getWidth(), packer.getHeight()});
+                packer = new AtlasPacker(pageWidth, MAX_PAGE_SIZE, PADDING);
+                if (!packer.add(sheet.getWidth(), sheet.getHeight(), positions[i])) {
+                    throw new IllegalStateException("Sprite sheet " + ENTRIES[i].name + " is bigger than a page");
+                }
+            }
+            page[i] = pageSizes.size();
+        }
+        pageSizes.add(new int[]{packer.getWidth(), packer.getHeight()});
+
+        for (int[] size : pageSizes) {
+            pages.add(Bitmap.createBitmap(size[0], size[1], Bitmap.Config.ARGB_8888));
+        }
+        for (int i = 0; i < ENTRIES.length; i++) {
+            Bitmap bitmap = pages.get(page[i]);
+            new Canvas(bitmap).drawBitmap(sheets[i], positions[i][0], positions[i][1], null);
+
+            Entry entry = ENTRIES[i];
+            regions.put(entry.name, new Region(bitmap, page[i], positions[i][0], positions[i][1],
+                sheets[i].getWidth(), sheets[i].getHeight(), entry.columns, entry.rows));
+            sheets[i].recycle();
+        }
+    }
+
+    /**
+     * The region of the sheet with the given name, e.g. {@link #COW}
+     */
+    public Region getRegion(String name) {
+        Region region = regions.get(name);
+        if (region == null) {
+            throw new IllegalArgumentException("No sprite sheet " + name + " in the atlas");
+        }
+        return region;
+    }
+
+    /**
+     * Number of bitmaps the sheets are packed on
+     */
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    public Bitmap getPage(int page) {
+        return pages.get(page);
+    }
+
+    /**
+     * A sprite sheet inside a page of the atlas
+     */
+    public static final class Region {
+        private final Bitmap bitmap;
+        private final int page;
+        private final int left, top;
+        private final int columns, rows;
+        private final int frameWidth, frameHeight;
+        private CollisionMask collisionMask;
+
+        Region(Bitmap bitmap, int page, int left, int top, int width, int height, int columns, int rows) {
+            this.bitmap = bitmap;
+            this.page = page;
+            this.left = left;
+            this.top = top;
+            this.columns = columns;
+            this.rows = rows;
+            this.frameWidth = width / columns;
+            this.frameHeight = height / rows;
+        }
+
+        /**
+         * Sets src to the frame at the given column and row.
+         */
+        public void getFrame(int col, int row, Rect src) {
+            int x = left + col * frameWidth;
+            int y = top + row * frameHeight;
+            src.set(x, y, x + frameWidth, y + frameHeight);
+        }
+
+        /**
+         * The page the region is on
+         */
+        public Bitmap getBitmap() {
+            return bitmap;
+        }
+
+        /**
+         * Index of the page the region is on, and so its texture in {@link Textures}
+         */
+        public int getPage() {
+            return page;
+        }
+
+        public int getColumns() {
+            return columns;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getFrameWidth() {
+            return frameWidth;
+        }
+
+        public int getFrameHeight() {
+            return frameHeight;
+        }
+
+        /**
+         * The solid pixels of the frames, built on the first call.
+         */
+        public synchronized CollisionMask getCollisionMask() {
+            if (collisionMask == null) {
+                int width = frameWidth * columns;
+                int height = frameHeight * rows;
+                int[] pixels = new int[width * height];
+                bitmap.getPixels(pixels, 0, width, left, top, width, height);
+                collisionMask = CollisionMask.fromArgb(pixels, width, frameWidth, frameHeight, columns, rows);
+            }
+            return collisionMask;
+        }
+    }
+
+    /**
+     * A line of the manifest
+     */
+    private static final class Entry {
+        final String name;
+        final int drawable;
+        final int columns, rows;
+
+        Entry(String name, int drawable, int columns, int rows) {
+            this.name = name;
+            this.drawable = drawable;
+            this.columns = columns;
+            this.rows = rows;
+        }
+    }
+}
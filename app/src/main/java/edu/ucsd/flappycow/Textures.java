@@ -0,0 +1,46 @@
+/**
+ * Textures
+ * The bitmaps behind the texture ids of a Renderer
+ * <p>
+ * The pages of the texture atlas come first, so the page of a region is its texture.
+ * Bitmaps that are made later, like the tiles of the parallax layers, are added and replaced as needed.
+ */
+
+package edu.ucsd.flappycow;
+
+import android.graphics.Bitmap;
+
+import java.util.Arrays;
+
+public class Textures {
+    private Bitmap[] bitmaps = new Bitmap[8];
+    private int size;
+
+    public Textures(TextureAtlas atlas) {
+        for (int i = 0; i < atlas.getPageCount(); i++) {
+            add(atlas.getPage(i));
+        }
+    }
+
+    /**
+     * @return the id of the new texture
+     */
+    public int add(Bitmap bitmap) {
+        if (size == bitmaps.length) {
+            bitmaps = Arrays.copyOf(bitmaps, size * 2);
+        }
+        bitmaps[size] = bitmap;
+        return size++;
+    }
+
+    /**
+     * Replaces the bitmap of the texture, e.g. when it was rebuilt for a new size.
+     */
+    public void set(int texture, Bitmap bitmap) {
+        bitmaps[texture] = bitmap;
+    }
+
+    public Bitmap get(int texture) {
+        return bitmaps[texture];
+    }
+}
@@ -1,33 +1,36 @@
 package edu.ucsd.flappycow.sprites;
 
-import android.graphics.Bitmap;
-import android.graphics.Canvas;
-
 import edu.ucsd.flappycow.GameActivity;
 import edu.ucsd.flappycow.GameView;
+import edu.ucsd.flappycow.core.Renderer;
 
 
 public class Accessory extends Sprite {
 
     public Accessory(GameView view, GameActivity gameActivity) {
         super(view, gameActivity);
+        this.layer = Renderer.LAYER_ACCESSORY;
     }
 
-    public void moveTo(int x, int y) {
+    public void moveTo(float x, float y, float lastX, float lastY) {
         this.x = x;
         this.y = y;
+        this.lastX = lastX;
+        this.lastY = lastY;
     }
 
-    public void setBitmap(Bitmap bitmap) {
-        this.bitmap = bitmap;
-        this.width = this.bitmap.getWidth();
-        this.height = this.bitmap.getHeight();
+    /**
+     * Wears the accessory with the given name of the texture atlas.
+     */
+    @Override
+    public void setRegion(String name) {
+        super.setRegion(name);
     }
 
     @Override
-    public void draw(Canvas canvas) {
-        if (this.bitmap != null) {
-            super.draw(canvas);
+    public void draw(Renderer renderer) {
+        if (this.region != null) {
+            super.draw(renderer);
         }
     }
 }
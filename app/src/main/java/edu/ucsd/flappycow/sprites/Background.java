@@ -8,54 +8,87 @@
 package edu.ucsd.flappycow.sprites;
 
 import android.graphics.Bitmap;
-import android.graphics.Canvas;
 
 import edu.ucsd.flappycow.R;
 
+import edu.ucsd.flappycow.BitmapCache;
 import edu.ucsd.flappycow.GameActivity;
 import edu.ucsd.flappycow.GameView;
-import edu.ucsd.flappycow.Util;
+import edu.ucsd.flappycow.core.Parallax;
+import edu.ucsd.flappycow.core.Renderer;
 
 public class Background extends Sprite {
 
-    /** Static bitmap to reduce memory usage */
-    public static Bitmap globalBitmap;
+    /** Too wide for the texture atlas, so it has its own bitmap */
+    protected Bitmap bitmap;
+
+    /** The bitmap scaled to the height of the canvas, made on the first draw */
+    private Bitmap tile;
+    private int texture = -1;
+
+    /** Source and destination rectangles of the current frame */
+    private final int[] rects = new int[2 * Parallax.RECT_PAIR];
 
     public Background(GameView view, GameActivity gameActivity) {
-        super(view, gameActivity);
+        this(view, gameActivity, R.drawable.bg);
+    }
 
-        if (globalBitmap == null) {
-            globalBitmap = Util.getDownScaledBitmapAlpha8(gameActivity, R.drawable.bg);
-        }
-        this.bitmap = globalBitmap;
+    /**
+     * Scrolls the given drawable instead of the background.
+     */
+    protected Background(GameView view, GameActivity gameActivity, int drawable) {
+        super(view, gameActivity);
+        this.layer = Renderer.LAYER_BACKGROUND;
+        this.bitmap = BitmapCache.getInstance(gameActivity).get(drawable, BitmapCache.DOWN_SCALED);
     }
 
     /**
-     * Draws the bitmap to the Canvas.
-     * The height of the bitmap will be scaled to the height of the canvas.
-     * When the bitmap is scrolled to far to the left, so it won't cover the whole screen,
-     * the bitmap will be drawn another time behind the first one.
+     * Moves the bitmap and wraps it around,
+     * when it's scrolled completely out of the screen.
      */
     @Override
-    public void draw(Canvas canvas) {
-        double factor = (1.0 * canvas.getHeight()) / bitmap.getHeight();
-
+    public void move() {
+        super.move();
         if (-x > bitmap.getWidth()) {
             // The first bitmap is completely out of the screen
             x += bitmap.getWidth();
+            lastX += bitmap.getWidth();
+        }
+    }
+
+    /**
+     * Draws the tile to the screen.
+     * The tile is the bitmap scaled to the height of the screen, so drawing it only copies the visible part.
+     * When the tile is scrolled to far to the left, so it won't cover the whole screen,
+     * the tile will be drawn another time behind the first one.
+     */
+    @Override
+    public void draw(Renderer renderer) {
+        int width = view.getWidth();
+        int height = view.getHeight();
+        if (tile == null || tile.getHeight() != height) {
+            int tileWidth = Parallax.tileWidth(bitmap.getWidth(), bitmap.getHeight(), height);
+            tile = Bitmap.createScaledBitmap(bitmap, tileWidth, height, true);
+            if (texture < 0) {
+                texture = view.getTextures().add(tile);
+            } else {
+                view.getTextures().set(texture, tile);
+                renderer.textureChanged(texture);
+            }
+        }
+
+        int x = getDrawX();
+        if (x > 0) {
+            // Interpolated across a wrap around
+            x -= bitmap.getWidth();
         }
 
-        int endBitmap = Math.min(-x + (int) (canvas.getWidth() / factor), bitmap.getWidth());
-        int endCanvas = (int) ((endBitmap + x) * factor) + 1;
-        src.set(-x, 0, endBitmap, bitmap.getHeight());
-        dst.set(0, 0, endCanvas, canvas.getHeight());
-        canvas.drawBitmap(this.bitmap, src, dst, null);
-
-        if (endBitmap == bitmap.getWidth()) {
-            // draw second bitmap
-            src.set(0, 0, (int) (canvas.getWidth() / factor), bitmap.getHeight());
-            dst.set(endCanvas, 0, endCanvas + canvas.getWidth(), canvas.getHeight());
-            canvas.drawBitmap(this.bitmap, src, dst, null);
+        int count = Parallax.layout(Parallax.tileX(x, bitmap.getWidth(), tile.getWidth()),
+            tile.getWidth(), width, height, rects);
+        for (int i = 0; i < count; i++) {
+            int o = i * Parallax.RECT_PAIR;
+            renderer.draw(texture, rects[o], rects[o + 1], rects[o + 2], rects[o + 3],
+                rects[o + 4], rects[o + 5], rects[o + 6], rects[o + 7], layer);
         }
     }
 }
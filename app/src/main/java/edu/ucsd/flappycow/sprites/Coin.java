@@ -7,38 +7,25 @@
 
 package edu.ucsd.flappycow.sprites;
 
-import android.graphics.Bitmap;
-
 import edu.ucsd.flappycow.*;
 
 import edu.ucsd.flappycow.GameActivity;
 import edu.ucsd.flappycow.GameView;
 import edu.ucsd.flappycow.MainActivity;
-import edu.ucsd.flappycow.Util;
+import edu.ucsd.flappycow.SoundEngine;
+import edu.ucsd.flappycow.TextureAtlas;
 
 public class Coin extends PowerUp {
-    /**
-     * Static bitmap to reduce memory usage.
-     */
-    public static Bitmap globalBitmap;
-    private static int sound = -1;
+    private final SoundEngine sounds;
 
     public Coin(GameView view, GameActivity gameActivity) {
         super(view, gameActivity);
-        if (globalBitmap == null) {
-            globalBitmap = Util.getScaledBitmapAlpha8(gameActivity, R.drawable.coin);
-        }
-        this.bitmap = globalBitmap;
-        this.width = this.bitmap.getWidth() / (colNr = 12);
-        this.height = this.bitmap.getHeight();
-        this.frameTime = 1;
-        if (sound == -1) {
-            sound = GameActivity.soundPool.load(gameActivity, R.raw.coin, 1);
-        }
+        setRegion(TextureAtlas.COIN);
+        this.sounds = SoundEngine.getInstance(gameActivity);
     }
 
     /**
-     * When eaten the player will turn into nyan cat.
+     * When collected the coins are increased.
      */
     @Override
     public void onCollision() {
@@ -48,12 +35,6 @@ public class Coin extends PowerUp {
     }
 
     private void playSound() {
-        GameActivity.soundPool.play(sound, MainActivity.volume, MainActivity.volume, 0, 0, 1);
-    }
-
-    @Override
-    public void move() {
-        changeToNextFrame();
-        super.move();
+        sounds.play(SoundEngine.COIN, MainActivity.volume);
     }
 }
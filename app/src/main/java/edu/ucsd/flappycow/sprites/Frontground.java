@@ -7,31 +7,22 @@
 
 package edu.ucsd.flappycow.sprites;
 
-import android.graphics.Bitmap;
-
 import edu.ucsd.flappycow.R;
 
 import edu.ucsd.flappycow.GameActivity;
 import edu.ucsd.flappycow.GameView;
-import edu.ucsd.flappycow.Util;
+import edu.ucsd.flappycow.core.Renderer;
+import edu.ucsd.flappycow.core.WorldConfig;
 
 public class Frontground extends Background {
     /**
      * Height of the ground relative to the height of the bitmap
      */
-    public static final float GROUND_HEIGHT = (1f * /*45*/ 35) / 720;
-
-    /**
-     * Static bitmap to reduce memory usage.
-     */
-    public static Bitmap globalBitmap;
+    public static final float GROUND_HEIGHT = WorldConfig.GROUND_HEIGHT;
 
     public Frontground(GameView view, GameActivity gameActivity) {
-        super(view, gameActivity);
-        if (globalBitmap == null) {
-            globalBitmap = Util.getDownScaledBitmapAlpha8(gameActivity, R.drawable.fg);
-        }
-        this.bitmap = globalBitmap;
+        super(view, gameActivity, R.drawable.fg);
+        this.layer = Renderer.LAYER_FRONTGROUND;
     }
 
 }
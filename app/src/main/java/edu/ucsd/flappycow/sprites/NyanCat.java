@@ -9,32 +9,20 @@
 
 package edu.ucsd.flappycow.sprites;
 
-import android.graphics.Bitmap;
-import android.graphics.Canvas;
-
-import edu.ucsd.flappycow.R;
-
 import edu.ucsd.flappycow.GameActivity;
 import edu.ucsd.flappycow.GameView;
-import edu.ucsd.flappycow.Util;
+import edu.ucsd.flappycow.TextureAtlas;
+import edu.ucsd.flappycow.core.Player;
+import edu.ucsd.flappycow.core.Renderer;
 
 public class NyanCat extends PlayableCharacter {
 
-    /** Static bitmap to reduce memory usage */
-    public static Bitmap globalBitmap;
-
     /** The rainbow tail behind the cat */
     private Rainbow rainbow;
 
-    public NyanCat(GameView view, GameActivity gameActivity) {
-        super(view, gameActivity);
-        if (globalBitmap == null) {
-            globalBitmap = Util.getScaledBitmapAlpha8(gameActivity, R.drawable.nyan_cat);
-        }
-        this.bitmap = globalBitmap;
-        this.width = this.bitmap.getWidth();
-        this.height = this.bitmap.getHeight() / 2;
-        this.y = gameActivity.getResources().getDisplayMetrics().heightPixels / 2;
+    public NyanCat(GameView view, GameActivity gameActivity, Player player) {
+        super(view, gameActivity, player);
+        setRegion(TextureAtlas.NYAN_CAT);
 
         this.rainbow = new Rainbow(view, gameActivity);
     }
@@ -55,10 +43,12 @@ public class NyanCat extends PlayableCharacter {
     private void manageRainbowMovement() {
         rainbow.y = this.y;        // nyan cat and rainbow bitmap have the same height
         rainbow.x = this.x - rainbow.width;
+        rainbow.lastY = this.lastY;
+        rainbow.lastX = this.lastX - rainbow.width;
         rainbow.move();
 
         // manage frames of the rainbow
-        if (speedY > getTabSpeed() / 3 && speedY < getMaxSpeed() * 1 / 3) {
+        if (speedY > player.getTabSpeed() / 3 && speedY < player.getMaxSpeed() * 1 / 3) {
             rainbow.row = 0;
         } else if (speedY > 0) {
             rainbow.row = 1;
@@ -72,30 +62,11 @@ public class NyanCat extends PlayableCharacter {
      * and the rainbow.
      */
     @Override
-    public void draw(Canvas canvas) {
-        super.draw(canvas);
-        if (rainbow != null && !isDead) {
-            rainbow.draw(canvas);
+    public void draw(Renderer renderer) {
+        super.draw(renderer);
+        if (rainbow != null && !isDead()) {
+            rainbow.draw(renderer);
         }
     }
 
-    /**
-     * Calls super.dead,
-     * removes the rainbow tail
-     * and set the bitmapframe to a dead cat -.-
-     */
-    @Override
-    public void dead() {
-        super.dead();
-        this.row = 1;
-
-        // Maybe an explosion
-    }
-
-    @Override
-    public void revive() {
-        super.revive();
-        manageRainbowMovement();
-    }
-
 }
@@ -7,18 +7,16 @@
 
 package edu.ucsd.flappycow.sprites;
 
-import edu.ucsd.flappycow.R;
-
 import edu.ucsd.flappycow.GameActivity;
 import edu.ucsd.flappycow.GameView;
-import edu.ucsd.flappycow.Util;
+import edu.ucsd.flappycow.TextureAtlas;
+import edu.ucsd.flappycow.core.Renderer;
 
 public class PauseButton extends Sprite {
     public PauseButton(GameView view, GameActivity gameActivity) {
         super(view, gameActivity);
-        this.bitmap = Util.getScaledBitmapAlpha8(gameActivity, R.drawable.pause_button);
-        this.width = this.bitmap.getWidth();
-        this.height = this.bitmap.getHeight();
+        this.layer = Renderer.LAYER_BUTTONS;
+        setRegion(TextureAtlas.PAUSE_BUTTON);
     }
 
     /**
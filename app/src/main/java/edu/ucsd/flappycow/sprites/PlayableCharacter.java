@@ -9,100 +9,40 @@ package edu.ucsd.flappycow.sprites;
 
 import edu.ucsd.flappycow.GameActivity;
 import edu.ucsd.flappycow.GameView;
+import edu.ucsd.flappycow.core.Player;
+import edu.ucsd.flappycow.core.Renderer;
 
 public abstract class PlayableCharacter extends Sprite {
 
-    protected boolean isDead = false;
+    /** The simulated character that is drawn */
+    protected final Player player;
 
-    public PlayableCharacter(GameView view, GameActivity gameActivity) {
+    public PlayableCharacter(GameView view, GameActivity gameActivity, Player player) {
         super(view, gameActivity);
-        move();
+        this.layer = Renderer.LAYER_PLAYER;
+        this.player = player;
     }
 
     /**
-     * Calls super.move
-     * Moves the character to 1/6 of the horizontal screen
-     * Manages the speed changes -> Falling
+     * Takes over position, speed and frame of the simulated character.
      */
     @Override
     public void move() {
-        this.x = this.view.getWidth() / 6;
-
-        if (speedY < 0) {
-            // The character is moving up
-            speedY = speedY * 2 / 3 + getSpeedTimeDecrease() / 2;
-        } else {
-            // the character is moving down
-            this.speedY += getSpeedTimeDecrease();
-        }
-
-        if (this.speedY > getMaxSpeed()) {
-            // speed limit
-            this.speedY = getMaxSpeed();
-        }
-
-        super.move();
-    }
-
-    /**
-     * A dead character falls slowly to the ground.
-     */
-    public void dead() {
-        this.isDead = true;
-        this.speedY = getMaxSpeed() / 2;
+        bind(player);
     }
 
     /**
-     * Let the character flap up.
+     * Called after the character flapped up.
      */
     public void onTap() {
-        this.speedY = getTabSpeed();
-        this.y += getPosTabIncrease();
-    }
-
-    /**
-     * Falling speed limit
-     *
-     * @return
-     */
-    protected float getMaxSpeed() {
-        // 25 @ 720x1280 px
-        return view.getHeight() / 51.2f;
+        // e.g. play a sound
     }
 
     /**
-     * Every run cycle the speed towards the ground will increase.
-     *
-     * @return
+     * Called after the character was brought back to life.
      */
-    protected float getSpeedTimeDecrease() {
-        // 4 @ 720x1280 px
-        return view.getHeight() / 320;
-    }
-
-    /**
-     * The character gets this speed when taped.
-     *
-     * @return
-     */
-    protected float getTabSpeed() {
-        // -80 @ 720x1280 px
-        return -view.getHeight() / 16f;
-    }
-
-    /**
-     * The character jumps up the pixel height of this value.
-     *
-     * @return
-     */
-    protected int getPosTabIncrease() {
-        // -12 @ 720x1280 px
-        return -view.getHeight() / 100;
-    }
-
     public void revive() {
-        this.isDead = false;
-        this.row = 0;
+        move();
     }
 
     public void upgradeBitmap(int points) {
@@ -114,6 +54,6 @@ public abstract class PlayableCharacter extends Sprite {
     }
 
     public boolean isDead() {
-        return this.isDead;
+        return player.isDead();
     }
 }
@@ -9,22 +9,18 @@ package edu.ucsd.flappycow.sprites;
 
 import edu.ucsd.flappycow.GameActivity;
 import edu.ucsd.flappycow.GameView;
+import edu.ucsd.flappycow.core.Renderer;
 
 public abstract class PowerUp extends Sprite {
     public PowerUp(GameView view, GameActivity gameActivity) {
         super(view, gameActivity);
-        init();
+        this.layer = Renderer.LAYER_POWER_UPS;
     }
 
     /**
-     * Sets this sprite above the visible screen.
-     * At x = 4/5 of the screen.
-     * Uses the speed of the GameView to let the power-up fall slowly down.
+     * What should be done, when the player eats this power-up?
      */
-    private void init() {
-        this.x = view.getWidth() * 4 / 5;
-        this.y = 0 - this.height;
-        this.speedX = -view.getSpeedX();
-        this.speedY = (int) (view.getSpeedX() * (Math.random() + 0.5));
+    public void onCollision() {
+        // Every subclass has to specify this itself
     }
 }
@@ -7,36 +7,22 @@
 
 package edu.ucsd.flappycow.sprites;
 
-import android.graphics.Bitmap;
-
-import edu.ucsd.flappycow.R;
-
 import edu.ucsd.flappycow.GameActivity;
 import edu.ucsd.flappycow.GameView;
-import edu.ucsd.flappycow.Util;
+import edu.ucsd.flappycow.TextureAtlas;
+import edu.ucsd.flappycow.core.Renderer;
 
 public class Rainbow extends Sprite {
-
-    /**
-     * Static bitmap to reduce memory usage.
-     */
-    public static Bitmap globalBitmap;
-
     public Rainbow(GameView view, GameActivity gameActivity) {
         super(view, gameActivity);
-        if (globalBitmap == null) {
-            globalBitmap = Util.getScaledBitmapAlpha8(gameActivity, R.drawable.rainbow);
-        }
-        this.bitmap = globalBitmap;
-        this.width = this.bitmap.getWidth() / (colNr = 4);
-        this.height = this.bitmap.getHeight() / 3;
+        this.layer = Renderer.LAYER_PLAYER;
+        setRegion(TextureAtlas.RAINBOW);
     }
 
     @Override
     public void move() {
-        changeToNextFrame();
+        changeToNextFrame(GameView.UPDATE_INTERVAL);
         super.move();
     }
 
-
 }
@@ -7,25 +7,30 @@
 
 package edu.ucsd.flappycow.sprites;
 
-import android.graphics.Bitmap;
-import android.graphics.Canvas;
 import android.graphics.Rect;
 
 import edu.ucsd.flappycow.GameActivity;
 import edu.ucsd.flappycow.GameView;
+import edu.ucsd.flappycow.TextureAtlas;
+import edu.ucsd.flappycow.core.Body;
+import edu.ucsd.flappycow.core.EntityStore;
+import edu.ucsd.flappycow.core.Renderer;
 
 public abstract class Sprite {
 
-    /** The bitmaps that holds the frames that should be drawn */
-    protected Bitmap bitmap;
+    /** The region of the texture atlas that holds the frames that should be drawn */
+    protected TextureAtlas.Region region;
 
-    /** Height and width of one frame of the bitmap */
+    /** Height and width of one frame of the region */
     protected int height, width;
 
-    /** x and y coordinates on the canvas */
-    protected int x, y;
+    /** x and y coordinates on the canvas, rounded when drawn */
+    protected float x, y;
 
-    /** Horizontal and vertical speed of the sprite */
+    /** x and y coordinates of the last tick, used to interpolate the drawn position */
+    protected float lastX, lastY;
+
+    /** Horizontal and vertical speed of the sprite in pixels per second */
     protected float speedX, speedY;
 
     /** The source frame of the bitmap that should be drawn */
@@ -34,20 +39,23 @@ public abstract class Sprite {
     /** The destination area that the frame should be drawn to */
     protected Rect dst;
 
+    /** Renderer.LAYER_* the sprite is drawn on */
+    protected int layer;
+
     /** Coordinates of the frame in the spritesheet */
     protected byte col, row;
 
     /** Number of columns the sprite has */
     protected byte colNr = 1;
 
-    /** How long a frame should be displayed */
-    protected short frameTime;
+    /** How long a frame should be displayed in milliseconds */
+    protected short frameMillis;
 
     /**
-     * Counter for the frames
+     * Milliseconds the current frame is displayed
      * Cycling through the columns
      */
-    protected short frameTimeCounter;
+    protected float frameElapsed;
 
     /** The GameView that holds this Sprite */
     protected GameView view;
@@ -58,88 +66,84 @@ public abstract class Sprite {
     public Sprite(GameView view, GameActivity gameActivity) {
         this.view = view;
         this.gameActivity = gameActivity;
-        frameTime = 1;
+        frameMillis = (short) GameView.UPDATE_INTERVAL;
         src = new Rect();
         dst = new Rect();
     }
 
     /**
-     * Draws the frame of the bitmap specified by col and row
+     * Draws the frame of the region specified by col and row
      * at the position given by x and y
-     * @param canvas Canvas that should be drawn on
+     * @param renderer Renderer that should be drawn with
      */
-    public void draw(Canvas canvas) {
-        src.set(col * width, row * height, (col + 1) * width, (row + 1) * height);
-        dst.set(x, y, x + width, y + height);
-        canvas.drawBitmap(bitmap, src, dst, null);
+    public void draw(Renderer renderer) {
+        int drawX = getDrawX();
+        int drawY = getDrawY();
+        region.getFrame(col, row, src);
+        renderer.draw(region.getPage(), src.left, src.top, src.right, src.bottom,
+            drawX, drawY, drawX + width, drawY + height, layer);
     }
 
     /**
-     * Modifies the x and y coordinates according to the speedX and speedY value
+     * Uses the sheet with the given name of the texture atlas.
+     * The size is the size of one frame.
+     * @param name e.g. TextureAtlas.COW
      */
-    public void move() {
-        // changeToNextFrame();
-        // Its more efficient if only the classes that need this implement it in their move method.
+    protected void setRegion(String name) {
+        setRegion(view.getTextureAtlas().getRegion(name));
+    }
 
-        x += speedX;
-        y += speedY;
+    protected void setRegion(TextureAtlas.Region region) {
+        this.region = region;
+        this.colNr = (byte) region.getColumns();
+        this.width = region.getFrameWidth();
+        this.height = region.getFrameHeight();
     }
 
     /**
-     * Changes the frame by cycling through the columns.
+     * Remembers the current position as the start point for the render interpolation.
+     * Has to be called before the sprite is moved.
      */
-    protected void changeToNextFrame() {
-        this.frameTimeCounter++;
-        if (this.frameTimeCounter >= this.frameTime) {
-            this.col = (byte) ((this.col + 1) % this.colNr);
-            this.frameTimeCounter = 0;
-        }
+    public void storePosition() {
+        this.lastX = x;
+        this.lastY = y;
     }
 
     /**
-     * Checks whether this sprite is so far to the left, it's not visible anymore.
-     * @return
+     * The x coordinate the sprite is drawn at.
+     * Interpolated between the last and the current tick.
      */
-    public boolean isOutOfRange() {
-        return this.x + width < 0;
+    protected int getDrawX() {
+        return Math.round(lastX + (x - lastX) * view.getInterpolation());
     }
 
     /**
-     * Checks whether the sprite is touching this.
-     * Seeing the sprites as rectangles.
-     * @param sprite
-     * @return
+     * The y coordinate the sprite is drawn at.
+     * Interpolated between the last and the current tick.
      */
-    public boolean isColliding(Sprite sprite) {
-        if (this.x + getCollisionTolerance() < sprite.x + sprite.width
-            && this.x + this.width > sprite.x + getCollisionTolerance()
-            && this.y + getCollisionTolerance() < sprite.y + sprite.height
-            && this.y + this.height > sprite.y + getCollisionTolerance()) {
-            return true;
-        }
-        return false;
+    protected int getDrawY() {
+        return Math.round(lastY + (y - lastY) * view.getInterpolation());
     }
 
     /**
-     * Checks whether the sprite is touching this.
-     * With the distance of the 2 centers.
-     * @param sprite
-     * @return
+     * Modifies the x and y coordinates according to the speedX and speedY value for one tick
      */
-    public boolean isCollidingRadius(Sprite sprite, float factor) {
-        int m1x = this.x + (this.width >> 1);
-        int m1y = this.y + (this.height >> 1);
-        int m2x = sprite.x + (sprite.width >> 1);
-        int m2y = sprite.y + (sprite.height >> 1);
-        int dx = m1x - m2x;
-        int dy = m1y - m2y;
-        int d = (int) Math.sqrt(dy * dy + dx * dx);
-
-        if (d < (this.width + sprite.width) * factor
-            || d < (this.height + sprite.height) * factor) {
-            return true;
-        } else {
-            return false;
+    public void move() {
+        // changeToNextFrame();
+        // Its more efficient if only the classes that need this implement it in their move method.
+
+        x += speedX * view.getTickSeconds();
+        y += speedY * view.getTickSeconds();
+    }
+
+    /**
+     * Changes the frame by cycling through the columns, once the frame was shown long enough.
+     */
+    protected void changeToNextFrame(float millis) {
+        this.frameElapsed += millis;
+        while (this.frameElapsed >= this.frameMillis) {
+            this.col = (byte) ((this.col + 1) % this.colNr);
+            this.frameElapsed -= this.frameMillis;
         }
     }
 
@@ -155,57 +159,47 @@ public abstract class Sprite {
     }
 
     /**
-     * What should be done, when the player collide with this sprite?
-     */
-    public void onCollision() {
-        // Every subclass has to specify this itself
-    }
-
-    /**
-     * Checks whether the sprite is touching the ground or the sky.
-     * @return
-     */
-    public boolean isTouchingEdge() {
-        return isTouchingGround() || isTouchingSky();
-    }
-
-    /**
-     * Checks whether the sprite is touching the ground.
-     * @return
-     */
-    public boolean isTouchingGround() {
-        return this.y + this.height > this.view.getHeight() - this.view.getHeight() * Frontground.GROUND_HEIGHT;
-    }
-
-    /**
-     * Checks whether the sprite is touching the sky.
-     * @return
+     * Takes over the position, speed and frame of a body of the simulated world.
+     * @param body
      */
-    public boolean isTouchingSky() {
-        return this.y < 0;
+    public void bind(Body body) {
+        this.x = body.getX();
+        this.y = body.getY();
+        this.lastX = body.getLastX();
+        this.lastY = body.getLastY();
+        this.speedX = body.getSpeedX();
+        this.speedY = body.getSpeedY();
+        this.col = (byte) body.getCol();
+        this.row = (byte) body.getRow();
     }
 
     /**
-     * Checks whether the play has passed this sprite.
-     * @return
+     * Takes over the position, speed and frame of an entity of the simulated world.
      */
-    public boolean isPassed() {
-        return this.x + this.width < view.getPlayer().getX();
-    }
-
-    public int getX() {
+    public void bind(EntityStore entities, int i) {
+        this.x = entities.getX(i);
+        this.y = entities.getY(i);
+        this.lastX = entities.getLastX(i);
+        this.lastY = entities.getLastY(i);
+        this.speedX = entities.getSpeedX(i);
+        this.speedY = entities.getSpeedY(i);
+        this.col = (byte) entities.getCol(i);
+        this.row = (byte) entities.getRow(i);
+    }
+
+    public float getX() {
         return x;
     }
 
-    public void setX(int x) {
+    public void setX(float x) {
         this.x = x;
     }
 
-    public int getY() {
+    public float getY() {
         return y;
     }
 
-    public void setY(int y) {
+    public void setY(float y) {
         this.y = y;
     }
 
@@ -229,14 +223,4 @@ public abstract class Sprite {
         return width;
     }
 
-    /**
-     * Gives a value that will be tolerated when touching a sprite.
-     * Because my images have some whitespace to the edge.
-     * @return
-     */
-    private int getCollisionTolerance() {
-        // 25 @ 720x1280 px
-        return gameActivity.getResources().getDisplayMetrics().heightPixels / 50;
-    }
-
 }
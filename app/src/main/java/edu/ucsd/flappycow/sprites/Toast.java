@@ -7,31 +7,14 @@
 
 package edu.ucsd.flappycow.sprites;
 
-import android.graphics.Bitmap;
-
-import edu.ucsd.flappycow.R;
-
 import edu.ucsd.flappycow.GameActivity;
 import edu.ucsd.flappycow.GameView;
-import edu.ucsd.flappycow.Util;
+import edu.ucsd.flappycow.TextureAtlas;
 
 public class Toast extends PowerUp {
-
-    /**
-     * Static bitmap to reduce memory usage.
-     */
-    public static Bitmap globalBitmap;
-
-    public static final int POINTS_TO_TOAST = 42;
-
     public Toast(GameView view, GameActivity gameActivity) {
         super(view, gameActivity);
-        if (globalBitmap == null) {
-            globalBitmap = Util.getScaledBitmapAlpha8(gameActivity, R.drawable.toast);
-        }
-        this.bitmap = globalBitmap;
-        this.width = this.bitmap.getWidth();
-        this.height = this.bitmap.getHeight();
+        setRegion(TextureAtlas.TOAST);
     }
 
     /**
@@ -43,5 +26,4 @@ public class Toast extends PowerUp {
         view.changeToNyanCat();
     }
 
-
 }
@@ -7,25 +7,16 @@
 
 package edu.ucsd.flappycow.sprites;
 
-import android.graphics.Bitmap;
-
-import edu.ucsd.flappycow.R;
-
 import edu.ucsd.flappycow.GameActivity;
 import edu.ucsd.flappycow.GameView;
-import edu.ucsd.flappycow.Util;
+import edu.ucsd.flappycow.TextureAtlas;
+import edu.ucsd.flappycow.core.Renderer;
 
 public class Tutorial extends Sprite {
-    public static Bitmap globalBitmap;
-
     public Tutorial(GameView view, GameActivity gameActivity) {
         super(view, gameActivity);
-        if (globalBitmap == null) {
-            globalBitmap = Util.getScaledBitmapAlpha8(gameActivity, R.drawable.tutorial);
-        }
-        this.bitmap = globalBitmap;
-        this.width = this.bitmap.getWidth();
-        this.height = this.bitmap.getHeight();
+        this.layer = Renderer.LAYER_TUTORIAL;
+        setRegion(TextureAtlas.TUTORIAL);
     }
 
     /**
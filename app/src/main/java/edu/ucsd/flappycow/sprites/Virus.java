@@ -1,24 +1,13 @@
 package edu.ucsd.flappycow.sprites;
 
-import android.graphics.Bitmap;
-
-import edu.ucsd.flappycow.R;
-
 import edu.ucsd.flappycow.GameActivity;
 import edu.ucsd.flappycow.GameView;
-import edu.ucsd.flappycow.Util;
+import edu.ucsd.flappycow.TextureAtlas;
 
 public class Virus extends PowerUp {
-    public static Bitmap globalBitmap;
-
     public Virus(GameView view, GameActivity gameActivity) {
         super(view, gameActivity);
-        if (globalBitmap == null) {
-            globalBitmap = Util.getScaledBitmapAlpha8(gameActivity, R.drawable.virus);
-        }
-        this.bitmap = globalBitmap;
-        this.width = this.bitmap.getWidth();
-        this.height = this.bitmap.getHeight();
+        setRegion(TextureAtlas.VIRUS);
     }
 
     /**
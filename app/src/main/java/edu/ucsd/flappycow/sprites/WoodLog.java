@@ -7,38 +7,15 @@
 
 package edu.ucsd.flappycow.sprites;
 
-import android.graphics.Bitmap;
-
-import edu.ucsd.flappycow.R;
-
 import edu.ucsd.flappycow.GameActivity;
 import edu.ucsd.flappycow.GameView;
-import edu.ucsd.flappycow.Util;
+import edu.ucsd.flappycow.TextureAtlas;
+import edu.ucsd.flappycow.core.Renderer;
 
 public class WoodLog extends Sprite {
-
-    /**
-     * Static bitmap to reduce memory usage.
-     */
-    public static Bitmap globalBitmap;
-
     public WoodLog(GameView view, GameActivity gameActivity) {
         super(view, gameActivity);
-        if (globalBitmap == null) {
-            globalBitmap = Util.getScaledBitmapAlpha8(gameActivity, R.drawable.log_full);
-        }
-        this.bitmap = globalBitmap;
-        this.width = this.bitmap.getWidth();
-        this.height = this.bitmap.getHeight();
-    }
-
-    /**
-     * Sets the position
-     * @param x
-     * @param y
-     */
-    public void init(int x, int y) {
-        this.x = x;
-        this.y = y;
+        this.layer = Renderer.LAYER_OBSTACLES;
+        setRegion(TextureAtlas.LOG);
     }
 }
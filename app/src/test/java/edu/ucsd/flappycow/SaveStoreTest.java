@@ -0,0 +1,101 @@
+package edu.ucsd.flappycow;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class SaveStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testFlushedStateIsLoaded() throws Exception {
+        // GIVEN
+        File file = new File(folder.getRoot(), SaveStore.FILE_NAME);
+        SaveStore store = new SaveStore(file);
+
+        // WHEN
+        store.setCoins(42);
+        store.setBestScore(77);
+        store.setMedal(2);
+        store.addAchievements(77, SaveStore.ACHIEVEMENT_BRONZE | SaveStore.ACHIEVEMENT_SILVER);
+        store.addAchievements(12, SaveStore.ACHIEVEMENT_TOASTIFICATION);
+        store.flush();
+
+        // THEN
+        SaveStore loaded = new SaveStore(file);
+        assertTrue(loaded.load());
+        assertEquals(42, loaded.getCoins());
+        assertEquals(77, loaded.getBestScore());
+        assertEquals(2, loaded.getMedal());
+        assertEquals(77, loaded.getAchievementPoints());
+        assertEquals(SaveStore.ACHIEVEMENT_BRONZE | SaveStore.ACHIEVEMENT_SILVER
+            | SaveStore.ACHIEVEMENT_TOASTIFICATION, loaded.getAchievements());
+    }
+
+    @Test
+    public void testCorruptFileIsRejected() throws Exception {
+        // GIVEN
+        File file = new File(folder.getRoot(), SaveStore.FILE_NAME);
+        SaveStore store = new SaveStore(file);
+        store.setCoins(42);
+        store.flush();
+
+        // WHEN
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(8);
+            raf.write(0xFF);
+        }
+
+        // THEN
+        SaveStore loaded = new SaveStore(file);
+        assertFalse(loaded.load());
+        assertEquals(0, loaded.getCoins());
+    }
+
+    @Test
+    public void testBackupIsLoadedWhenFileIsCorrupt() throws Exception {
+        // GIVEN
+        File file = new File(folder.getRoot(), SaveStore.FILE_NAME);
+        SaveStore store = new SaveStore(file);
+        store.setCoins(42);
+        store.flush();
+        store.setCoins(43);
+        store.flush();
+
+        // WHEN
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(8);
+            raf.write(0xFF);
+        }
+
+        // THEN
+        SaveStore loaded = new SaveStore(file);
+        assertTrue(loaded.exists());
+        assertTrue(loaded.load());
+        assertEquals(42, loaded.getCoins());
+    }
+
+    @Test
+    public void testNothingExistsBeforeTheFirstWrite() {
+        // GIVEN
+        File file = new File(folder.getRoot(), SaveStore.FILE_NAME);
+
+        // WHEN
+        SaveStore store = new SaveStore(file);
+
+        // THEN
+        assertFalse(store.exists());
+        assertFalse(store.load());
+    }
+}
@@ -0,0 +1,55 @@
+package edu.ucsd.flappycow.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One decision of the autopilot and the tick it decided for, without a time budget.
+ * The world is started over with the next seed, when the autopilot crashes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AutopilotBenchmark {
+
+    @Param({"4", "8", "16"})
+    public int beamWidth;
+
+    @Param({"20"})
+    public int depth;
+
+    private WorldConfig config;
+    private World world;
+    private Autopilot autopilot;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        config = new WorldConfig(720, 1280);
+        world = new World(config, seed);
+        autopilot = new Autopilot(config, beamWidth, depth, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int decide() {
+        if (world.isGameOver()) {
+            world = new World(config, ++seed);
+        }
+        world.step(autopilot.decide(world));
+        return world.getPoints();
+    }
+}
@@ -0,0 +1,128 @@
+package edu.ucsd.flappycow.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collision tests between the player and the other bodies.
+ * The bodies are moved to one of a set of random positions before every test,
+ * so hits and misses are mixed and nothing can be constant folded.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionBenchmark {
+    private static final int POSITIONS = 1024;
+
+    private final int[] xs = new int[POSITIONS];
+    private final int[] ys = new int[POSITIONS];
+    private int index;
+
+    private WorldConfig config;
+    private Player player;
+    private Body coin;
+
+    /** A spider and a log, entities 0 and 1 */
+    private EntityStore obstacle;
+
+    /** With elliptic collision masks, like round sprites */
+    private Player maskedPlayer;
+    private EntityStore maskedCoin;
+
+    @Setup
+    public void setUp() {
+        config = new WorldConfig(720, 1280);
+        player = new Player(config);
+        coin = new Body(config.coinWidth, config.coinHeight);
+        obstacle = new EntityStore(2);
+        obstacle.add(EntityStore.SPIDER, 0, 0, config.spiderWidth, config.spiderHeight);
+        obstacle.add(EntityStore.LOG, 0, 0, config.logWidth, config.logHeight);
+
+        Random random = new Random(42);
+        for (int i = 0; i < POSITIONS; i++) {
+            xs[i] = random.nextInt(config.width);
+            ys[i] = random.nextInt(config.height);
+        }
+
+        maskedPlayer = new Player(config);
+        maskedPlayer.mask = ellipse(config.cowWidth, config.cowHeight, 8, 4);
+        maskedCoin = new EntityStore(1);
+        maskedCoin.add(EntityStore.COIN, 0, 0, config.coinWidth, config.coinHeight);
+        maskedCoin.mask[0] = ellipse(config.coinWidth, config.coinHeight, 12, 1);
+    }
+
+    private static CollisionMask ellipse(int width, int height, int columns, int rows) {
+        CollisionMask mask = new CollisionMask(width, height, columns, rows);
+        for (int frame = 0; frame < columns * rows; frame++) {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    float dx = (x + 0.5f) / width - 0.5f;
+                    float dy = (y + 0.5f) / height - 0.5f;
+                    if (dx * dx + dy * dy < 0.25f) {
+                        mask.set(frame, x, y);
+                    }
+                }
+            }
+        }
+        return mask;
+    }
+
+    private int next() {
+        index = (index + 1) & (POSITIONS - 1);
+        return index;
+    }
+
+    @Benchmark
+    public boolean isColliding() {
+        int i = next();
+        coin.x = xs[i];
+        coin.y = ys[i];
+        return coin.isColliding(player, config.collisionTolerance);
+    }
+
+    @Benchmark
+    public boolean isCollidingRadius() {
+        int i = next();
+        coin.x = xs[i];
+        coin.y = ys[i];
+        return coin.isCollidingRadius(player, 0.5f);
+    }
+
+    @Benchmark
+    public boolean obstacleIsColliding() {
+        int i = next();
+        obstacle.x[0] = xs[i];
+        obstacle.y[0] = ys[i] - config.spiderHeight;
+        obstacle.x[1] = xs[i];
+        obstacle.y[1] = ys[i] + config.height / 4;
+        return CollisionSystem.collides(obstacle, 0, player, config.collisionTolerance)
+            || CollisionSystem.collides(obstacle, 1, player, config.collisionTolerance);
+    }
+
+    /**
+     * Positions close to the player, so most tests get past the broadphase.
+     */
+    @Benchmark
+    public boolean collidesMask() {
+        int i = next();
+        int width = maskedCoin.width[0];
+        int height = maskedCoin.height[0];
+        maskedCoin.x[0] = maskedPlayer.x - width + xs[i] % (maskedPlayer.width + width);
+        maskedCoin.y[0] = maskedPlayer.y - height + ys[i] % (maskedPlayer.height + height);
+        return CollisionSystem.collides(maskedCoin, 0, maskedPlayer, config.collisionTolerance);
+    }
+}
@@ -0,0 +1,47 @@
+package edu.ucsd.flappycow.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The source and destination rectangles of a parallax layer,
+ * for the 3000x720 background, pre-scaled for a 720x1280 screen.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParallaxBenchmark {
+    private static final int BITMAP_WIDTH = 3000;
+    private static final int BITMAP_HEIGHT = 720;
+    private static final int CANVAS_WIDTH = 720;
+    private static final int CANVAS_HEIGHT = 1280;
+
+    /** Scroll speed of the frontground at 720x1280 px */
+    private static final int SPEED = 21;
+
+    private static final int TILE_WIDTH = Parallax.tileWidth(BITMAP_WIDTH, BITMAP_HEIGHT, CANVAS_HEIGHT);
+
+    private final int[] rects = new int[2 * Parallax.RECT_PAIR];
+    private int x;
+
+    @Benchmark
+    public int layout() {
+        x -= SPEED;
+        if (-x > BITMAP_WIDTH) {
+            x += BITMAP_WIDTH;
+        }
+        return Parallax.layout(Parallax.tileX(x, BITMAP_WIDTH, TILE_WIDTH), TILE_WIDTH, CANVAS_WIDTH, CANVAS_HEIGHT, rects);
+    }
+}
@@ -0,0 +1,44 @@
+package edu.ucsd.flappycow.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The physics of the player: falling, flapping up and the frame changes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerBenchmark {
+    private WorldConfig config;
+    private Player player;
+
+    @Setup
+    public void setUp() {
+        config = new WorldConfig(720, 1280);
+        player = new Player(config);
+    }
+
+    @Benchmark
+    public float move() {
+        // Flap up whenever the lower half is reached, like a player would
+        if (player.y > config.height / 2 && player.speedY > 0) {
+            player.onTap();
+        }
+        player.move();
+        return player.y;
+    }
+}
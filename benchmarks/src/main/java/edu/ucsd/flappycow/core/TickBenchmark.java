@@ -0,0 +1,83 @@
+package edu.ucsd.flappycow.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full tick of the world, like GameView runs it, with a number of obstacles on the way.
+ * <p>
+ * The obstacles leave a gap as high as the screen, so the player never crashes,
+ * and they are put back to the right before the world would remove them.
+ * Passing them spawns power-ups as in the game.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TickBenchmark {
+
+    @Param({"1", "8", "64", "256"})
+    public int obstacles;
+
+    private WorldConfig config;
+    private World world;
+
+    /** Horizontal distance between two obstacles */
+    private int spacing;
+
+    @Setup
+    public void setUp() {
+        config = new WorldConfig(720, 1280);
+        world = new World(config);
+        spacing = config.width / 2;
+
+        for (int i = 0; i < obstacles; i++) {
+            world.addObstacle(config.width + i * spacing, -config.spiderHeight - 1, config.height);
+        }
+    }
+
+    @Benchmark
+    public int tick() {
+        Player player = world.getPlayer();
+        int input = player.y > config.height / 2 && player.speedY > 0 ? World.INPUT_TAP : World.INPUT_NONE;
+
+        world.step(input);
+
+        EntityStore entities = world.getEntities();
+        for (int i = 0; i < entities.size; i++) {
+            if (!EntityStore.isPowerUp(entities.kind[i]) && entities.x[i] + entities.width[i] < 0) {
+                float x = rightmost(entities, entities.kind[i]) + spacing;
+                entities.x[i] = x;
+                entities.lastX[i] = x;
+                entities.passed[i] = false;
+            }
+        }
+        if (world.isGameOver()) {
+            world.revive();
+        }
+        return world.getPoints();
+    }
+
+    private static float rightmost(EntityStore entities, byte kind) {
+        float x = -Float.MAX_VALUE;
+        for (int i = 0; i < entities.size; i++) {
+            if (entities.kind[i] == kind) {
+                x = Math.max(x, entities.x[i]);
+            }
+        }
+        return x;
+    }
+}
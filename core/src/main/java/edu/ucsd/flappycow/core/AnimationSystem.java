@@ -0,0 +1,31 @@
+/**
+ * Changes the frames of the animated entities
+ */
+
+package edu.ucsd.flappycow.core;
+
+final class AnimationSystem {
+
+    private AnimationSystem() {
+    }
+
+    /**
+     * Cycles through the columns of the entities that have more than one,
+     * every frame is shown for its frameMillis.
+     */
+    static void update(EntityStore entities, float millis) {
+        byte[] col = entities.col;
+        byte[] colNr = entities.colNr;
+        short[] frameMillis = entities.frameMillis;
+        float[] elapsed = entities.frameElapsed;
+        for (int i = 0; i < entities.size; i++) {
+            if (colNr[i] > 1) {
+                elapsed[i] += millis;
+                while (elapsed[i] >= frameMillis[i]) {
+                    col[i] = (byte) ((col[i] + 1) % colNr[i]);
+                    elapsed[i] -= frameMillis[i];
+                }
+            }
+        }
+    }
+}
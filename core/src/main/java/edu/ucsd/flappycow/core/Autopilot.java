@@ -0,0 +1,161 @@
+/**
+ * A bot that plays the world, e.g. for an attract mode or to test the game
+ * <p>
+ * Every tick it searches ahead with a beam search: the best states are stepped
+ * with and without a tap, and the best of those are kept for the next tick ahead.
+ * The states are worlds that are allocated once and reused with {@link World#copyFrom(World)},
+ * so deciding doesn't allocate. The search stops early, when the time budget is used up.
+ */
+
+package edu.ucsd.flappycow.core;
+
+public class Autopilot {
+
+    /** Score of a world with a crashed player, surviving longer is still better */
+    private static final double CRASHED = -1e9;
+
+    /** Value of a coin, in pixels away from the middle of the gap */
+    private static final double COIN = 100;
+
+    private final int beamWidth;
+    private final int depth;
+    private final long budgetNanos;
+
+    /** The states that are searched on from */
+    private World[] beam;
+    private int[] beamInput;
+    private double[] beamScore;
+    private int beamSize;
+
+    /** The states after the next tick, two for each state of the beam */
+    private World[] candidates;
+    private int[] candidateInput;
+    private double[] candidateScore;
+
+    /**
+     * @param beamWidth   number of states that are kept for each tick ahead
+     * @param depth       number of ticks to look ahead
+     * @param budgetNanos time a decision may take
+     */
+    public Autopilot(WorldConfig config, int beamWidth, int depth, long budgetNanos) {
+        this.beamWidth = beamWidth;
+        this.depth = depth;
+        this.budgetNanos = budgetNanos;
+        this.beam = new World[beamWidth];
+        this.beamInput = new int[beamWidth];
+        this.beamScore = new double[beamWidth];
+        this.candidates = new World[2 * beamWidth];
+        this.candidateInput = new int[2 * beamWidth];
+        this.candidateScore = new double[2 * beamWidth];
+        for (int i = 0; i < beamWidth; i++) {
+            beam[i] = new World(config, 0);
+        }
+        for (int i = 0; i < candidates.length; i++) {
+            candidates[i] = new World(config, 0);
+        }
+    }
+
+    /**
+     * Looks ahead from the world, which isn't changed.
+     *
+     * @return the input for the next step, INPUT_TAP or INPUT_NONE
+     */
+    public int decide(World world) {
+        long start = System.nanoTime();
+        beam[0].copyFrom(world);
+        beamInput[0] = World.INPUT_NONE;
+        beamSize = 1;
+
+        for (int d = 0; d < depth; d++) {
+            int count = 0;
+            for (int b = 0; b < beamSize; b++) {
+                World state = beam[b];
+                if (state.isGameOver()) {
+                    // Nothing changes anymore
+                    keep(count++, state, beamInput[b], beamScore[b]);
+                    continue;
+                }
+                expand(count++, state, World.INPUT_NONE, d == 0 ? World.INPUT_NONE : beamInput[b], d);
+                expand(count++, state, World.INPUT_TAP, d == 0 ? World.INPUT_TAP : beamInput[b], d);
+            }
+            select(count);
+            if (System.nanoTime() - start > budgetNanos) {
+                break;
+            }
+        }
+        return beamInput[0];
+    }
+
+    /**
+     * Makes candidate i a copy of the state, stepped with the input.
+     *
+     * @param first the input of the first tick that led to the candidate
+     * @param tick  how many ticks ahead the state is
+     */
+    private void expand(int i, World state, int input, int first, int tick) {
+        World candidate = candidates[i];
+        candidate.copyFrom(state);
+        candidate.step(input);
+        candidateInput[i] = first;
+        candidateScore[i] = score(candidate, tick);
+    }
+
+    /**
+     * Makes candidate i a copy of the state, as it is.
+     */
+    private void keep(int i, World state, int first, double score) {
+        candidates[i].copyFrom(state);
+        candidateInput[i] = first;
+        candidateScore[i] = score;
+    }
+
+    /**
+     * Moves the best candidates into the beam, the best first.
+     * The worlds are swapped, not copied.
+     */
+    private void select(int count) {
+        beamSize = Math.min(beamWidth, count);
+        for (int k = 0; k < beamSize; k++) {
+            int best = k;
+            for (int i = k + 1; i < count; i++) {
+                if (candidateScore[i] > candidateScore[best]) {
+                    best = i;
+                }
+            }
+            swapCandidates(k, best);
+
+            World world = beam[k];
+            beam[k] = candidates[k];
+            candidates[k] = world;
+            beamInput[k] = candidateInput[k];
+            beamScore[k] = candidateScore[k];
+        }
+    }
+
+    private void swapCandidates(int i, int j) {
+        World world = candidates[i];
+        candidates[i] = candidates[j];
+        candidates[j] = world;
+        int input = candidateInput[i];
+        candidateInput[i] = candidateInput[j];
+        candidateInput[j] = input;
+        double score = candidateScore[i];
+        candidateScore[i] = candidateScore[j];
+        candidateScore[j] = score;
+    }
+
+    /**
+     * How good the world is: points and coins first,
+     * then how close the player is to the middle of the next gap.
+     *
+     * @param tick how many ticks ahead the world is
+     */
+    private static double score(World world, int tick) {
+        if (world.isGameOver()) {
+            return CRASHED + tick;
+        }
+        Player player = world.getPlayer();
+        double distance = Math.abs(player.y + player.height / 2 - world.getGapCenter());
+        return world.getPoints() * 1e6 + world.getCoins() * COIN - distance;
+    }
+}
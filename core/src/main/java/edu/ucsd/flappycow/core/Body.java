@@ -0,0 +1,194 @@
+/**
+ * The template for every object of the simulated world
+ * <p>
+ * Position, speed, size and the frame of the sprite sheet that is shown.
+ * Positions are in pixels with a fraction, speeds in pixels per second.
+ * How it is drawn is up to the app.
+ */
+
+package edu.ucsd.flappycow.core;
+
+public class Body {
+
+    /** How long a frame is shown, if nothing else is set */
+    static final short DEFAULT_FRAME_MILLIS = 50;
+
+    /** x and y coordinates on the screen */
+    float x, y;
+
+    /** x and y coordinates of the last tick, so the position can be interpolated */
+    float lastX, lastY;
+
+    /** Horizontal and vertical speed */
+    float speedX, speedY;
+
+    /** Height and width of one frame */
+    int width, height;
+
+    /** Coordinates of the frame in the spritesheet */
+    byte col, row;
+
+    /** Number of columns the spritesheet has */
+    byte colNr = 1;
+
+    /** How many milliseconds a frame should be displayed */
+    short frameMillis = DEFAULT_FRAME_MILLIS;
+
+    /**
+     * Milliseconds the frame is displayed already
+     * Cycling through the columns
+     */
+    float frameElapsed;
+
+    /** The solid pixels of the frames, without one collisions are rectangular */
+    CollisionMask mask;
+
+    Body() {
+    }
+
+    Body(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Takes over the state of the other body, the mask is shared.
+     */
+    void copyFrom(Body other) {
+        this.x = other.x;
+        this.y = other.y;
+        this.lastX = other.lastX;
+        this.lastY = other.lastY;
+        this.speedX = other.speedX;
+        this.speedY = other.speedY;
+        this.width = other.width;
+        this.height = other.height;
+        this.col = other.col;
+        this.row = other.row;
+        this.colNr = other.colNr;
+        this.frameMillis = other.frameMillis;
+        this.frameElapsed = other.frameElapsed;
+        this.mask = other.mask;
+    }
+
+    /**
+     * Remembers the current position as the position of the last tick.
+     */
+    void storePosition() {
+        this.lastX = x;
+        this.lastY = y;
+    }
+
+    /**
+     * Modifies the x and y coordinates according to the speedX and speedY value
+     */
+    public void move(float seconds) {
+        x += speedX * seconds;
+        y += speedY * seconds;
+    }
+
+    /**
+     * Changes the frame by cycling through the columns, once the frame was shown long enough.
+     */
+    void changeToNextFrame(float millis) {
+        this.frameElapsed += millis;
+        while (this.frameElapsed >= this.frameMillis) {
+            this.col = (byte) ((this.col + 1) % this.colNr);
+            this.frameElapsed -= this.frameMillis;
+        }
+    }
+
+    /**
+     * Checks whether this body is so far to the left, it's not visible anymore.
+     */
+    public boolean isOutOfRange() {
+        return this.x + width < 0;
+    }
+
+    /**
+     * Checks whether the body is touching this.
+     * Seeing the bodies as rectangles, shrunk by the tolerance.
+     */
+    public boolean isColliding(Body body, float tolerance) {
+        return this.x + tolerance < body.x + body.width
+            && this.x + this.width > body.x + tolerance
+            && this.y + tolerance < body.y + body.height
+            && this.y + this.height > body.y + tolerance;
+    }
+
+    /**
+     * Checks whether the body is touching this.
+     * With the distance of the 2 centers.
+     */
+    public boolean isCollidingRadius(Body body, float factor) {
+        float dx = this.x + this.width / 2f - (body.x + body.width / 2f);
+        float dy = this.y + this.height / 2f - (body.y + body.height / 2f);
+        float d = (float) Math.sqrt(dy * dy + dx * dx);
+
+        return d < (this.width + body.width) * factor
+            || d < (this.height + body.height) * factor;
+    }
+
+    /**
+     * Checks whether the player at the given x coordinate has passed this body.
+     */
+    public boolean isPassed(float playerX) {
+        return this.x + this.width < playerX;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public void setX(float x) {
+        this.x = x;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    public void setY(float y) {
+        this.y = y;
+    }
+
+    public float getLastX() {
+        return lastX;
+    }
+
+    public float getLastY() {
+        return lastY;
+    }
+
+    public float getSpeedX() {
+        return speedX;
+    }
+
+    public void setSpeedX(float speedX) {
+        this.speedX = speedX;
+    }
+
+    public float getSpeedY() {
+        return speedY;
+    }
+
+    public void setSpeedY(float speedY) {
+        this.speedY = speedY;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    public int getRow() {
+        return row;
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * The solid pixels of every frame of a sprite sheet, one bit per pixel
+ * <p>
+ * Each row of a frame is stored in 64 bit words, so two masks are compared
+ * 64 pixels at a time with a bitwise and.
+ */
+
+package edu.ucsd.flappycow.core;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class CollisionMask {
+
+    /** Pixels with at least this alpha are solid */
+    public static final int ALPHA_THRESHOLD = 128;
+
+    /** Size of one frame */
+    final int width, height;
+
+    /** Number of frames in a row and in a column of the sheet */
+    final int columns, rows;
+
+    private final int wordsPerRow;
+
+    /** Frame after frame, row after row */
+    private final long[] bits;
+
+    public CollisionMask(int width, int height, int columns, int rows) {
+        this.width = width;
+        this.height = height;
+        this.columns = columns;
+        this.rows = rows;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.bits = new long[columns * rows * height * wordsPerRow];
+    }
+
+    /**
+     * Builds the mask of a sprite sheet from its ARGB pixels.
+     *
+     * @param pixels the sheet, row after row
+     * @param stride number of pixels in a row of the sheet
+     */
+    public static CollisionMask fromArgb(int[] pixels, int stride, int frameWidth, int frameHeight, int columns, int rows) {
+        CollisionMask mask = new CollisionMask(frameWidth, frameHeight, columns, rows);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < columns; col++) {
+                int frame = mask.getFrame(col, row);
+                for (int y = 0; y < frameHeight; y++) {
+                    int start = (row * frameHeight + y) * stride + col * frameWidth;
+                    for (int x = 0; x < frameWidth; x++) {
+                        if (pixels[start + x] >>> 24 >= ALPHA_THRESHOLD) {
+                            mask.set(frame, x, y);
+                        }
+                    }
+                }
+            }
+        }
+        return mask;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeInt(columns);
+        out.writeInt(rows);
+        for (long word : bits) {
+            out.writeLong(word);
+        }
+    }
+
+    public static CollisionMask read(DataInput in) throws IOException {
+        CollisionMask mask = new CollisionMask(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+        for (int i = 0; i < mask.bits.length; i++) {
+            mask.bits[i] = in.readLong();
+        }
+        return mask;
+    }
+
+    /**
+     * Folds the size and the pixels into the FNV-1a hash.
+     */
+    long hash(long hash) {
+        hash = fold(hash, width);
+        hash = fold(hash, height);
+        hash = fold(hash, columns);
+        hash = fold(hash, rows);
+        for (long word : bits) {
+            hash = fold(hash, word);
+        }
+        return hash;
+    }
+
+    private static long fold(long hash, long value) {
+        for (int shift = 0; shift < 64; shift += 8) {
+            hash = (hash ^ ((value >>> shift) & 0xFF)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Index of the frame at the given column and row of the sheet
+     */
+    public int getFrame(int col, int row) {
+        return row * columns + col;
+    }
+
+    public void set(int frame, int x, int y) {
+        bits[offset(frame, y) + (x >>> 6)] |= 1L << (x & 63);
+    }
+
+    public boolean isSet(int frame, int x, int y) {
+        return (bits[offset(frame, y) + (x >>> 6)] & (1L << (x & 63))) != 0;
+    }
+
+    private int offset(int frame, int y) {
+        return (frame * height + y) * wordsPerRow;
+    }
+
+    /**
+     * 64 pixels of a row, starting at x.
+     * Pixels right of the frame are never solid.
+     */
+    private long window(int rowOffset, int x) {
+        int word = x >>> 6;
+        int shift = x & 63;
+        long window = bits[rowOffset + word] >>> shift;
+        if (shift != 0 && word + 1 < wordsPerRow) {
+            window |= bits[rowOffset + word + 1] << (64 - shift);
+        }
+        return window;
+    }
+
+    /**
+     * Checks whether a solid pixel of the frame at x, y
+     * is at the same place as a solid pixel of the other frame.
+     */
+    public boolean overlaps(int frame, int x, int y, CollisionMask other, int otherFrame, int otherX, int otherY) {
+        int left = Math.max(x, otherX);
+        int right = Math.min(x + width, otherX + other.width);
+        int top = Math.max(y, otherY);
+        int bottom = Math.min(y + height, otherY + other.height);
+
+        for (int py = top; py < bottom; py++) {
+            int rowOffset = offset(frame, py - y);
+            int otherRowOffset = other.offset(otherFrame, py - otherY);
+            // Right of the overlap one of the two windows is empty, so there is nothing to cut off
+            for (int px = left; px < right; px += 64) {
+                if ((window(rowOffset, px - x) & other.window(otherRowOffset, px - otherX)) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * The collision masks of all sprites of the world
+ * <p>
+ * Comes from the app, which has the decoded sprite sheets.
+ * The masks have to be scaled like the sizes in the WorldConfig.
+ * They can be written to a file, so replays recorded with them can be verified off the device.
+ * A replay names its masks by their hash, the masks must not change once they are put together.
+ */
+
+package edu.ucsd.flappycow.core;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class CollisionMasks {
+    final CollisionMask cow;
+    final CollisionMask nyanCat;
+    final CollisionMask spider;
+    final CollisionMask log;
+    final CollisionMask toast;
+    final CollisionMask coin;
+    final CollisionMask virus;
+
+    /** FNV-1a of all masks */
+    private final long hash;
+
+    public CollisionMasks(CollisionMask cow, CollisionMask nyanCat, CollisionMask spider, CollisionMask log,
+                          CollisionMask toast, CollisionMask coin, CollisionMask virus) {
+        this.cow = cow;
+        this.nyanCat = nyanCat;
+        this.spider = spider;
+        this.log = log;
+        this.toast = toast;
+        this.coin = coin;
+        this.virus = virus;
+
+        long hash = 0xcbf29ce484222325L;
+        for (CollisionMask mask : new CollisionMask[]{cow, nyanCat, spider, log, toast, coin, virus}) {
+            hash = mask.hash(hash);
+        }
+        this.hash = hash;
+    }
+
+    /**
+     * The same for the same sizes and pixels, on every device.
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Whether the frames have the sizes of the sprites of the world, so the masks are made for its screen.
+     */
+    public boolean fits(WorldConfig config) {
+        return fits(cow, config.cowWidth, config.cowHeight)
+            && fits(nyanCat, config.nyanCatWidth, config.nyanCatHeight)
+            && fits(spider, config.spiderWidth, config.spiderHeight)
+            && fits(log, config.logWidth, config.logHeight)
+            && fits(toast, config.toastWidth, config.toastHeight)
+            && fits(coin, config.coinWidth, config.coinHeight)
+            && fits(virus, config.virusWidth, config.virusHeight);
+    }
+
+    private static boolean fits(CollisionMask mask, int width, int height) {
+        return mask.width == width && mask.height == height;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        cow.write(out);
+        nyanCat.write(out);
+        spider.write(out);
+        log.write(out);
+        toast.write(out);
+        coin.write(out);
+        virus.write(out);
+    }
+
+    public static CollisionMasks read(DataInput in) throws IOException {
+        return new CollisionMasks(CollisionMask.read(in), CollisionMask.read(in), CollisionMask.read(in),
+            CollisionMask.read(in), CollisionMask.read(in), CollisionMask.read(in), CollisionMask.read(in));
+    }
+
+    CollisionMask getPlayer(Player player) {
+        return player.isNyanCat ? nyanCat : cow;
+    }
+
+    CollisionMask get(byte kind) {
+        switch (kind) {
+            case EntityStore.SPIDER:
+                return spider;
+            case EntityStore.LOG:
+                return log;
+            case EntityStore.TOAST:
+                return toast;
+            case EntityStore.COIN:
+                return coin;
+            default:
+                return virus;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Finds the entities the player touches
+ * <p>
+ * The entities are sorted by x, so the ones that overlap the player horizontally
+ * are found with a binary search. Only those get the exact test.
+ */
+
+package edu.ucsd.flappycow.core;
+
+final class CollisionSystem {
+
+    private CollisionSystem() {
+    }
+
+    /**
+     * Index of the first entity that might overlap the body horizontally.
+     * Scan from there while the x coordinate is left of the body's right edge.
+     */
+    static int firstCandidate(EntityStore entities, Body body) {
+        return entities.firstAtOrRightOf(body.x - entities.maxWidth);
+    }
+
+    /**
+     * Checks whether the entity is touching the body.
+     * Pixel exact if both have a collision mask,
+     * otherwise with the rectangles, shrunk by the tolerance.
+     */
+    static boolean collides(EntityStore entities, int i, Body body, float tolerance) {
+        CollisionMask mask = entities.mask[i];
+        if (mask == null || body.mask == null) {
+            return isColliding(entities, i, body, tolerance);
+        }
+        // The rectangles are the broadphase, the masks are compared at the pixels the bodies are drawn at
+        return isColliding(entities, i, body, 0)
+            && mask.overlaps(mask.getFrame(entities.col[i], entities.row[i]), pixel(entities.x[i]), pixel(entities.y[i]),
+            body.mask, body.mask.getFrame(body.col, body.row), pixel(body.x), pixel(body.y));
+    }
+
+    private static int pixel(float coordinate) {
+        return Math.round(coordinate);
+    }
+
+    /**
+     * Checks whether the rectangles of the entity and the body overlap,
+     * shrunk by the tolerance.
+     */
+    static boolean isColliding(EntityStore entities, int i, Body body, float tolerance) {
+        float x = entities.x[i];
+        float y = entities.y[i];
+        return x + tolerance < body.x + body.width
+            && x + entities.width[i] > body.x + tolerance
+            && y + tolerance < body.y + body.height
+            && y + entities.height[i] > body.y + tolerance;
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * The numbers that make the game easy or hard
+ * <p>
+ * Speeds are in screen widths or heights per second, sizes are divisors of the screen size,
+ * so the game plays the same on every screen and at every tick rate.
+ * A new instance has the values of the game, a WorldConfig keeps its own copy.
+ */
+
+package edu.ucsd.flappycow.core;
+
+public class Difficulty {
+
+    /** Speed of the obstacles in widths per second, 320 px/s @ 720x1280 px */
+    float speed = 4 / 9f;
+
+    /** The speed increases by this many widths per second ... */
+    float speedIncrease = 1 / 30f;
+
+    /** ... every pointsPerSpeedIncrease points */
+    int pointsPerSpeedIncrease = 4;
+
+    /** The speed is at most this times the starting speed */
+    float maxSpeedFactor = 2;
+
+    /** The gap between spider and log is height / gapDivider minus the speed ... */
+    int gapDivider = 4;
+
+    /** ... but at least height / minGapDivider */
+    int minGapDivider = 5;
+
+    /** The player falls faster by this many heights per second every second, 1600 px/s/s @ 720x1280 px */
+    float gravity = 1.25f;
+
+    /**
+     * A tap lets the player move up this many heights per second ..., 1275 px/s @ 720x1280 px
+     * <p>
+     * The rise is fitted to the game that ticked at 20 Hz, -80 px per tick that decayed to 2/3 plus 2 px per tick:
+     * at every tick the player is where it was in that game, at other tick rates it rises on the same curve.
+     */
+    float tapSpeed = 0.9959375f;
+
+    /** ... and jump up this part of the height right away */
+    float tapJump = 0.01f;
+
+    /** While moving up, the speed decays towards riseSpeed, to e^-riseDecay of the difference per second, ln(3/2) / 0.05 */
+    float riseDecay = 8.109302f;
+
+    /** ... which is this many heights per second, 120 px/s @ 720x1280 px */
+    float riseSpeed = 0.09375f;
+
+    /** The player falls at most this many heights per second */
+    float maxFallSpeed = 0.390625f;
+
+    /** Chances in percent that a power-up shows up, when an obstacle is passed */
+    double toastChance = 33;
+    double coinChance = 20;
+    double virusChance = 10;
+
+    public Difficulty() {
+    }
+
+    public Difficulty(Difficulty other) {
+        this.speed = other.speed;
+        this.speedIncrease = other.speedIncrease;
+        this.pointsPerSpeedIncrease = other.pointsPerSpeedIncrease;
+        this.maxSpeedFactor = other.maxSpeedFactor;
+        this.gapDivider = other.gapDivider;
+        this.minGapDivider = other.minGapDivider;
+        this.gravity = other.gravity;
+        this.tapSpeed = other.tapSpeed;
+        this.tapJump = other.tapJump;
+        this.riseDecay = other.riseDecay;
+        this.riseSpeed = other.riseSpeed;
+        this.maxFallSpeed = other.maxFallSpeed;
+        this.toastChance = other.toastChance;
+        this.coinChance = other.coinChance;
+        this.virusChance = other.virusChance;
+    }
+
+    public float getSpeed() {
+        return speed;
+    }
+
+    public void setSpeed(float speed) {
+        this.speed = speed;
+    }
+
+    public float getSpeedIncrease() {
+        return speedIncrease;
+    }
+
+    public void setSpeedIncrease(float speedIncrease) {
+        this.speedIncrease = speedIncrease;
+    }
+
+    public int getPointsPerSpeedIncrease() {
+        return pointsPerSpeedIncrease;
+    }
+
+    public void setPointsPerSpeedIncrease(int pointsPerSpeedIncrease) {
+        this.pointsPerSpeedIncrease = pointsPerSpeedIncrease;
+    }
+
+    public float getMaxSpeedFactor() {
+        return maxSpeedFactor;
+    }
+
+    public void setMaxSpeedFactor(float maxSpeedFactor) {
+        this.maxSpeedFactor = maxSpeedFactor;
+    }
+
+    public int getGapDivider() {
+        return gapDivider;
+    }
+
+    public void setGapDivider(int gapDivider) {
+        this.gapDivider = gapDivider;
+    }
+
+    public int getMinGapDivider() {
+        return minGapDivider;
+    }
+
+    public void setMinGapDivider(int minGapDivider) {
+        this.minGapDivider = minGapDivider;
+    }
+
+    public float getGravity() {
+        return gravity;
+    }
+
+    public void setGravity(float gravity) {
+        this.gravity = gravity;
+    }
+
+    public float getTapSpeed() {
+        return tapSpeed;
+    }
+
+    public void setTapSpeed(float tapSpeed) {
+        this.tapSpeed = tapSpeed;
+    }
+
+    public float getTapJump() {
+        return tapJump;
+    }
+
+    public void setTapJump(float tapJump) {
+        this.tapJump = tapJump;
+    }
+
+    public float getRiseDecay() {
+        return riseDecay;
+    }
+
+    public void setRiseDecay(float riseDecay) {
+        this.riseDecay = riseDecay;
+    }
+
+    public float getRiseSpeed() {
+        return riseSpeed;
+    }
+
+    public void setRiseSpeed(float riseSpeed) {
+        this.riseSpeed = riseSpeed;
+    }
+
+    public float getMaxFallSpeed() {
+        return maxFallSpeed;
+    }
+
+    public void setMaxFallSpeed(float maxFallSpeed) {
+        this.maxFallSpeed = maxFallSpeed;
+    }
+
+    public double getToastChance() {
+        return toastChance;
+    }
+
+    public void setToastChance(double toastChance) {
+        this.toastChance = toastChance;
+    }
+
+    public double getCoinChance() {
+        return coinChance;
+    }
+
+    public void setCoinChance(double coinChance) {
+        this.coinChance = coinChance;
+    }
+
+    public double getVirusChance() {
+        return virusChance;
+    }
+
+    public void setVirusChance(double virusChance) {
+        this.virusChance = virusChance;
+    }
+}
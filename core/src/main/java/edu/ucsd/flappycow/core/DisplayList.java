@@ -0,0 +1,164 @@
+/**
+ * A frame, recorded as a list of draw commands instead of being drawn
+ * <p>
+ * The commands can be sorted by layer and texture, played to another renderer,
+ * compared with the last frame to skip drawing an identical one, and counted without any screen.
+ * The arrays only grow, recording a frame doesn't allocate once they are big enough.
+ */
+
+package edu.ucsd.flappycow.core;
+
+import java.util.Arrays;
+
+public class DisplayList implements Renderer {
+
+    /** Ints per command: texture, layer, src left, top, right, bottom, dst left, top, right, bottom */
+    static final int COMMAND_SIZE = 10;
+
+    /** Bits of the sort key for the position of the command, so the sort is stable */
+    private static final int ORDER_BITS = 24;
+
+    private int[] commands;
+    private int size;
+
+    /** Layer, texture and position of every command, sorted by sort(), the position is the low bits */
+    private long[] order;
+    private boolean sorted;
+
+    /** A texture changed while recording, so the frame looks different even if the commands are the same */
+    private boolean texturesChanged;
+
+    public DisplayList() {
+        this(64);
+    }
+
+    public DisplayList(int capacity) {
+        commands = new int[Math.max(capacity, 1) * COMMAND_SIZE];
+        order = new long[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Starts a new frame.
+     */
+    public void clear() {
+        size = 0;
+        sorted = false;
+        texturesChanged = false;
+    }
+
+    @Override
+    public void draw(int texture, int srcLeft, int srcTop, int srcRight, int srcBottom,
+                     int dstLeft, int dstTop, int dstRight, int dstBottom, int layer) {
+        if (size == order.length) {
+            commands = Arrays.copyOf(commands, commands.length * 2);
+            order = Arrays.copyOf(order, order.length * 2);
+        }
+        int o = size * COMMAND_SIZE;
+        commands[o] = texture;
+        commands[o + 1] = layer;
+        commands[o + 2] = srcLeft;
+        commands[o + 3] = srcTop;
+        commands[o + 4] = srcRight;
+        commands[o + 5] = srcBottom;
+        commands[o + 6] = dstLeft;
+        commands[o + 7] = dstTop;
+        commands[o + 8] = dstRight;
+        commands[o + 9] = dstBottom;
+        size++;
+        sorted = false;
+    }
+
+    @Override
+    public void textureChanged(int texture) {
+        texturesChanged = true;
+    }
+
+    /**
+     * Sorts the commands by layer, and within a layer by texture.
+     * Commands of the same layer and texture keep their order.
+     */
+    public void sort() {
+        if (size >= 1 << ORDER_BITS) {
+            throw new IllegalStateException("Too many commands to sort: " + size);
+        }
+        for (int i = 0; i < size; i++) {
+            int o = i * COMMAND_SIZE;
+            // layer in the top 16 bits, then 24 bits of texture, then the position
+            order[i] = (long) commands[o + 1] << (2 * ORDER_BITS)
+                | (long) (commands[o] & 0xFFFFFF) << ORDER_BITS
+                | i;
+        }
+        Arrays.sort(order, 0, size);
+        sorted = true;
+    }
+
+    /**
+     * Index of the command that is played as the i-th, after sort() or in the recorded order.
+     */
+    private int command(int i) {
+        return sorted ? (int) (order[i] & ((1 << ORDER_BITS) - 1)) : i;
+    }
+
+    /**
+     * Draws the commands with the other renderer, sorted if sort() was called.
+     */
+    public void playTo(Renderer renderer) {
+        for (int i = 0; i < size; i++) {
+            int o = command(i) * COMMAND_SIZE;
+            renderer.draw(commands[o], commands[o + 2], commands[o + 3], commands[o + 4], commands[o + 5],
+                commands[o + 6], commands[o + 7], commands[o + 8], commands[o + 9], commands[o + 1]);
+        }
+    }
+
+    /**
+     * Whether this frame looks exactly like the other one:
+     * the same commands in the same order, and no texture changed while this one was recorded.
+     */
+    public boolean looksLike(DisplayList other) {
+        if (texturesChanged || size != other.size || sorted != other.sorted) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            int o = command(i) * COMMAND_SIZE;
+            int p = other.command(i) * COMMAND_SIZE;
+            for (int k = 0; k < COMMAND_SIZE; k++) {
+                if (commands[o + k] != other.commands[p + k]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of recorded commands, the draw calls of a renderer that draws one sprite per call
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of runs of commands with the same texture, in the order they are played.
+     * The draw calls of a renderer that draws a run in one call.
+     */
+    public int countBatches() {
+        int batches = 0;
+        int texture = 0;
+        for (int i = 0; i < size; i++) {
+            int next = commands[command(i) * COMMAND_SIZE];
+            if (i == 0 || next != texture) {
+                batches++;
+                texture = next;
+            }
+        }
+        return batches;
+    }
+
+    public int getTexture(int i) {
+        return commands[command(i) * COMMAND_SIZE];
+    }
+
+    public int getLayer(int i) {
+        return commands[command(i) * COMMAND_SIZE + 1];
+    }
+}
@@ -0,0 +1,322 @@
+/**
+ * The spiders, logs and power-ups of the world, as a structure of arrays
+ * <p>
+ * Entity i is the i-th element of every array, so the systems run plain loops
+ * over primitive arrays instead of calling methods on objects.
+ * The entities are kept sorted by x, so a search for those near the player is a binary search.
+ * Removed entities stay until compact() closes the gaps, the arrays only grow.
+ */
+
+package edu.ucsd.flappycow.core;
+
+import java.util.Arrays;
+
+public class EntityStore {
+    public static final byte SPIDER = 0;
+    public static final byte LOG = 1;
+    public static final byte TOAST = 2;
+    public static final byte COIN = 3;
+    public static final byte VIRUS = 4;
+
+    /** Number of kinds, e.g. for a lookup table */
+    public static final int KINDS = 5;
+
+    int size;
+
+    byte[] kind;
+
+    /** x and y coordinates, now and in the last tick */
+    float[] x, y, lastX, lastY;
+
+    /** Pixels per second */
+    float[] speedX, speedY;
+
+    /** Size of one frame */
+    int[] width, height;
+
+    /** Frame in the sprite sheet and how it changes */
+    byte[] col, row, colNr;
+    short[] frameMillis;
+    float[] frameElapsed;
+
+    /** Solid pixels, null for rectangular collisions */
+    CollisionMask[] mask;
+
+    /** Passed by the player, so it's only counted once */
+    boolean[] passed;
+
+    boolean[] removed;
+    private int removedCount;
+
+    /** Width of the widest entity, so a search knows how far to look to the left */
+    int maxWidth;
+
+    /** The last element of the arrays isn't an entity, it holds one while sorting */
+    private int scratch;
+
+    EntityStore(int capacity) {
+        allocate(Math.max(capacity, 1) + 1);
+    }
+
+    private void allocate(int capacity) {
+        kind = new byte[capacity];
+        x = new float[capacity];
+        y = new float[capacity];
+        lastX = new float[capacity];
+        lastY = new float[capacity];
+        speedX = new float[capacity];
+        speedY = new float[capacity];
+        width = new int[capacity];
+        height = new int[capacity];
+        col = new byte[capacity];
+        row = new byte[capacity];
+        colNr = new byte[capacity];
+        frameMillis = new short[capacity];
+        frameElapsed = new float[capacity];
+        mask = new CollisionMask[capacity];
+        passed = new boolean[capacity];
+        removed = new boolean[capacity];
+        scratch = capacity - 1;
+    }
+
+    private void grow() {
+        grow(scratch * 2 + 1);
+    }
+
+    private void grow(int capacity) {
+        kind = Arrays.copyOf(kind, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        lastX = Arrays.copyOf(lastX, capacity);
+        lastY = Arrays.copyOf(lastY, capacity);
+        speedX = Arrays.copyOf(speedX, capacity);
+        speedY = Arrays.copyOf(speedY, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        col = Arrays.copyOf(col, capacity);
+        row = Arrays.copyOf(row, capacity);
+        colNr = Arrays.copyOf(colNr, capacity);
+        frameMillis = Arrays.copyOf(frameMillis, capacity);
+        frameElapsed = Arrays.copyOf(frameElapsed, capacity);
+        mask = Arrays.copyOf(mask, capacity);
+        passed = Arrays.copyOf(passed, capacity);
+        removed = Arrays.copyOf(removed, capacity);
+        scratch = capacity - 1;
+    }
+
+    /**
+     * Adds a standing entity with a single frame at the end.
+     * The order is restored by the next sort().
+     *
+     * @return the index of the entity
+     */
+    int add(byte kind, float x, float y, int width, int height) {
+        if (size == scratch) {
+            grow();
+        }
+        int i = size++;
+        this.kind[i] = kind;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.lastX[i] = x;
+        this.lastY[i] = y;
+        this.speedX[i] = 0;
+        this.speedY[i] = 0;
+        this.width[i] = width;
+        this.height[i] = height;
+        this.col[i] = 0;
+        this.row[i] = 0;
+        this.colNr[i] = 1;
+        this.frameMillis[i] = Body.DEFAULT_FRAME_MILLIS;
+        this.frameElapsed[i] = 0;
+        this.mask[i] = null;
+        this.passed[i] = false;
+        this.removed[i] = false;
+        maxWidth = Math.max(maxWidth, width);
+        return i;
+    }
+
+    /**
+     * Marks the entity as removed. It's gone after the next compact().
+     */
+    void remove(int i) {
+        if (!removed[i]) {
+            removed[i] = true;
+            removedCount++;
+        }
+    }
+
+    /**
+     * Closes the gaps of the removed entities, keeping the order of the others.
+     */
+    void compact() {
+        if (removedCount == 0) {
+            return;
+        }
+        int to = 0;
+        for (int from = 0; from < size; from++) {
+            if (!removed[from]) {
+                if (to != from) {
+                    copy(from, to);
+                }
+                to++;
+            }
+        }
+        for (int i = to; i < size; i++) {
+            mask[i] = null;
+        }
+        size = to;
+        removedCount = 0;
+    }
+
+    /**
+     * Sorts the entities by x.
+     * Everything scrolls left at about the same speed,
+     * so the order barely changes and insertion sort is linear.
+     */
+    void sort() {
+        for (int i = 1; i < size; i++) {
+            if (x[i - 1] <= x[i]) {
+                continue;
+            }
+            copy(i, scratch);
+            int j = i;
+            while (j > 0 && x[j - 1] > x[scratch]) {
+                copy(j - 1, j);
+                j--;
+            }
+            copy(scratch, j);
+        }
+        mask[scratch] = null;
+    }
+
+    void clear() {
+        Arrays.fill(mask, 0, size, null);
+        size = 0;
+        removedCount = 0;
+    }
+
+    /**
+     * Takes over the entities of the other store.
+     * Only allocates, if the other store holds more than this one ever did.
+     */
+    void copyFrom(EntityStore other) {
+        if (other.size > scratch) {
+            grow(other.scratch + 1);
+        }
+        int n = other.size;
+        System.arraycopy(other.kind, 0, kind, 0, n);
+        System.arraycopy(other.x, 0, x, 0, n);
+        System.arraycopy(other.y, 0, y, 0, n);
+        System.arraycopy(other.lastX, 0, lastX, 0, n);
+        System.arraycopy(other.lastY, 0, lastY, 0, n);
+        System.arraycopy(other.speedX, 0, speedX, 0, n);
+        System.arraycopy(other.speedY, 0, speedY, 0, n);
+        System.arraycopy(other.width, 0, width, 0, n);
+        System.arraycopy(other.height, 0, height, 0, n);
+        System.arraycopy(other.col, 0, col, 0, n);
+        System.arraycopy(other.row, 0, row, 0, n);
+        System.arraycopy(other.colNr, 0, colNr, 0, n);
+        System.arraycopy(other.frameMillis, 0, frameMillis, 0, n);
+        System.arraycopy(other.frameElapsed, 0, frameElapsed, 0, n);
+        System.arraycopy(other.mask, 0, mask, 0, n);
+        System.arraycopy(other.passed, 0, passed, 0, n);
+        System.arraycopy(other.removed, 0, removed, 0, n);
+        if (size > n) {
+            Arrays.fill(mask, n, size, null);
+        }
+        size = n;
+        removedCount = other.removedCount;
+        maxWidth = other.maxWidth;
+    }
+
+    private void copy(int from, int to) {
+        kind[to] = kind[from];
+        x[to] = x[from];
+        y[to] = y[from];
+        lastX[to] = lastX[from];
+        lastY[to] = lastY[from];
+        speedX[to] = speedX[from];
+        speedY[to] = speedY[from];
+        width[to] = width[from];
+        height[to] = height[from];
+        col[to] = col[from];
+        row[to] = row[from];
+        colNr[to] = colNr[from];
+        frameMillis[to] = frameMillis[from];
+        frameElapsed[to] = frameElapsed[from];
+        mask[to] = mask[from];
+        passed[to] = passed[from];
+        removed[to] = removed[from];
+    }
+
+    /**
+     * Index of the first entity with an x coordinate of at least the given one.
+     * The entities have to be sorted.
+     */
+    int firstAtOrRightOf(float x) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.x[mid] < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static boolean isPowerUp(byte kind) {
+        return kind >= TOAST;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getKind(int i) {
+        return kind[i];
+    }
+
+    public float getX(int i) {
+        return x[i];
+    }
+
+    public float getY(int i) {
+        return y[i];
+    }
+
+    public float getLastX(int i) {
+        return lastX[i];
+    }
+
+    public float getLastY(int i) {
+        return lastY[i];
+    }
+
+    public float getSpeedX(int i) {
+        return speedX[i];
+    }
+
+    public float getSpeedY(int i) {
+        return speedY[i];
+    }
+
+    public int getWidth(int i) {
+        return width[i];
+    }
+
+    public int getHeight(int i) {
+        return height[i];
+    }
+
+    public int getCol(int i) {
+        return col[i];
+    }
+
+    public int getRow(int i) {
+        return row[i];
+    }
+}
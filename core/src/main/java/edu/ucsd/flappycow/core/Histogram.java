@@ -0,0 +1,112 @@
+/**
+ * A histogram of durations in nanoseconds with a fixed number of buckets
+ * <p>
+ * Like an HDR histogram: the buckets are linear within each power of two,
+ * so every value is kept with a relative error of at most 1/16.
+ * Recording is an array increment, it never allocates.
+ */
+
+package edu.ucsd.flappycow.core;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+public class Histogram {
+
+    /** Values below this are counted exactly, above the buckets double in width every half of this */
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+
+    /** Largest value that is told apart, about 68 seconds. Larger ones count as this. */
+    public static final long MAX_VALUE = (1L << 36) - 1;
+
+    private final long[] counts = new long[index(MAX_VALUE) + 1];
+    private long count;
+    private long max;
+
+    /**
+     * Counts the value, negative values count as 0.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        } else if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+        counts[index(value)]++;
+        count++;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * The value that the given percentage of the recorded values is at or below.
+     * Accurate to the width of its bucket, but never above the maximum.
+     *
+     * @param percentile 0 to 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValueIn(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Writes a line per bucket that isn't empty: the highest value in it and its count.
+     * Dumps of different runs can be compared or added up bucket by bucket.
+     */
+    public void dumpBuckets(Appendable out) throws IOException {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                out.append(Long.toString(highestValueIn(i))).append(' ')
+                    .append(Long.toString(counts[i])).append('\n');
+            }
+        }
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        max = 0;
+    }
+
+    /**
+     * Bucket b > 0 holds the values v with v >> b in [HALF, SUB_BUCKETS),
+     * bucket 0 the values below SUB_BUCKETS.
+     */
+    private static int index(long value) {
+        int bucket = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1));
+        if (bucket == 0) {
+            return (int) value;
+        }
+        return bucket * HALF + (int) (value >>> bucket);
+    }
+
+    private static long highestValueIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int bucket = index / HALF - 1;
+        long sub = index % HALF + HALF;
+        return ((sub + 1) << bucket) - 1;
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Input events from one thread to another, without locks and without allocating
+ * <p>
+ * A ring buffer for a single producer, e.g. the UI thread, and a single consumer, e.g. the game thread.
+ * Each side only writes its own counter, and publishes it with an ordered write,
+ * so the slots of an event are visible to the consumer before the event is.
+ * When the ring is full, new events are dropped.
+ */
+
+package edu.ucsd.flappycow.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class InputQueue {
+
+    /** Kinds of events */
+    public static final int DOWN = 0;
+    public static final int SECOND_DOWN = 1;
+
+    /**
+     * Gets the events, on the consumer thread
+     */
+    public interface Handler {
+        /**
+         * @param timeNanos when the event happened, on the clock of System.nanoTime()
+         */
+        void onInput(int kind, int x, int y, long timeNanos);
+    }
+
+    private final int mask;
+    private final int[] kinds;
+    private final int[] xs;
+    private final int[] ys;
+    private final long[] times;
+
+    /** Events written so far, only written by the producer */
+    private final AtomicLong written = new AtomicLong();
+
+    /** Events read so far, only written by the consumer */
+    private final AtomicLong read = new AtomicLong();
+
+    /** The producer's copy of read, it only looks at the real one when the ring seems full */
+    private long readByProducer;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        mask = size - 1;
+        kinds = new int[size];
+        xs = new int[size];
+        ys = new int[size];
+        times = new long[size];
+    }
+
+    /**
+     * Adds an event, only called by the producer.
+     *
+     * @return false, if the ring is full and the event is dropped
+     */
+    public boolean offer(int kind, int x, int y, long timeNanos) {
+        long w = written.get();
+        if (w - readByProducer > mask) {
+            readByProducer = read.get();
+            if (w - readByProducer > mask) {
+                return false;
+            }
+        }
+        int i = (int) w & mask;
+        kinds[i] = kind;
+        xs[i] = x;
+        ys[i] = y;
+        times[i] = timeNanos;
+        written.lazySet(w + 1);
+        return true;
+    }
+
+    /**
+     * Hands all events that are there to the handler, in their order, only called by the consumer.
+     *
+     * @return the number of events
+     */
+    public int drain(Handler handler) {
+        long r = read.get();
+        long w = written.get();
+        for (long next = r; next < w; next++) {
+            int i = (int) next & mask;
+            int kind = kinds[i];
+            int x = xs[i];
+            int y = ys[i];
+            long time = times[i];
+            // The slot may be overwritten from now on
+            read.lazySet(next + 1);
+            handler.onInput(kind, x, y, time);
+        }
+        return (int) (w - r);
+    }
+
+    /**
+     * Drops all events that are there, only called by the consumer.
+     */
+    public void clear() {
+        read.lazySet(written.get());
+    }
+
+    /**
+     * Number of events that fit into the ring
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
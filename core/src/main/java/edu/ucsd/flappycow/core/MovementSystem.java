@@ -0,0 +1,47 @@
+/**
+ * Moves the entities by their speed
+ */
+
+package edu.ucsd.flappycow.core;
+
+final class MovementSystem {
+
+    private MovementSystem() {
+    }
+
+    /**
+     * Remembers the current positions as the positions of the last tick.
+     */
+    static void storePositions(EntityStore entities) {
+        int size = entities.size;
+        System.arraycopy(entities.x, 0, entities.lastX, 0, size);
+        System.arraycopy(entities.y, 0, entities.lastY, 0, size);
+    }
+
+    /**
+     * Sets the speed of the spiders and logs, they all move together.
+     */
+    static void setObstacleSpeed(EntityStore entities, float speedX) {
+        byte[] kind = entities.kind;
+        float[] speeds = entities.speedX;
+        for (int i = 0; i < entities.size; i++) {
+            if (!EntityStore.isPowerUp(kind[i])) {
+                speeds[i] = speedX;
+            }
+        }
+    }
+
+    /**
+     * Modifies the x and y coordinates according to the speedX and speedY value
+     */
+    static void move(EntityStore entities, float seconds) {
+        float[] x = entities.x;
+        float[] y = entities.y;
+        float[] speedX = entities.speedX;
+        float[] speedY = entities.speedY;
+        for (int i = 0; i < entities.size; i++) {
+            x[i] += speedX[i] * seconds;
+            y[i] += speedY[i] * seconds;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Where the parallax layers (background, frontground) are drawn
+ * <p>
+ * A layer is a bitmap that is scaled once to the height of the canvas, the tile, and scrolled to the left.
+ * When it's scrolled so far that it won't cover the whole canvas,
+ * it is drawn another time behind itself.
+ */
+
+package edu.ucsd.flappycow.core;
+
+public final class Parallax {
+
+    /** Ints per rectangle pair: src left, top, right, bottom, dst left, top, right, bottom */
+    public static final int RECT_PAIR = 8;
+
+    private Parallax() {
+    }
+
+    /**
+     * Width of the tile of a layer, that is scaled to the height of the canvas
+     */
+    public static int tileWidth(int bitmapWidth, int bitmapHeight, int canvasHeight) {
+        return (int) ((long) bitmapWidth * canvasHeight / bitmapHeight);
+    }
+
+    /**
+     * Scroll position in pixels of the tile, for a scroll position in pixels of the bitmap
+     */
+    public static int tileX(int x, int bitmapWidth, int tileWidth) {
+        return (int) ((long) x * tileWidth / bitmapWidth);
+    }
+
+    /**
+     * Calculates the source and destination rectangles of a layer, that is pre-scaled into a tile.
+     * The tile is as high as the canvas, so source and destination have the same size
+     * and drawing them is a copy of the visible strips.
+     *
+     * @param x      scroll position in pixels of the tile, between -tileWidth and 0
+     * @param rects  receives the rectangle pairs, needs room for 2 * RECT_PAIR ints
+     * @return the number of rectangle pairs that have to be drawn, 1 or 2
+     */
+    public static int layout(int x, int tileWidth, int canvasWidth, int canvasHeight, int[] rects) {
+        int endTile = Math.min(-x + canvasWidth, tileWidth);
+        int endCanvas = endTile + x;
+        set(rects, 0, -x, 0, endTile, canvasHeight, 0, 0, endCanvas, canvasHeight);
+
+        if (endCanvas < canvasWidth) {
+            // draw second tile
+            set(rects, RECT_PAIR, 0, 0, canvasWidth - endCanvas, canvasHeight, endCanvas, 0, canvasWidth, canvasHeight);
+            return 2;
+        }
+        return 1;
+    }
+
+    private static void set(int[] rects, int offset, int srcLeft, int srcTop, int srcRight, int srcBottom,
+                            int dstLeft, int dstTop, int dstRight, int dstBottom) {
+        rects[offset] = srcLeft;
+        rects[offset + 1] = srcTop;
+        rects[offset + 2] = srcRight;
+        rects[offset + 3] = srcBottom;
+        rects[offset + 4] = dstLeft;
+        rects[offset + 5] = dstTop;
+        rects[offset + 6] = dstRight;
+        rects[offset + 7] = dstBottom;
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * The character that is controlled by the player
+ * <p>
+ * Starts as the cow and turns into nyan cat after eating a toast.
+ */
+
+package edu.ucsd.flappycow.core;
+
+public class Player extends Body {
+
+    /** Row of the cow spritesheet that shows the dead cow */
+    private static final byte COW_DEAD_ROW = 3;
+
+    /** Row of the nyan cat spritesheet that shows the dead cat */
+    private static final byte NYAN_CAT_DEAD_ROW = 1;
+
+    /** How long a frame is shown, the cape of the cow flutters slower than the cat */
+    private static final short COW_FRAME_MILLIS = 150;
+    private static final short NYAN_CAT_FRAME_MILLIS = 50;
+
+    private final WorldConfig config;
+
+    boolean isDead = false;
+    boolean isNyanCat = false;
+
+    Player(WorldConfig config) {
+        super(config.cowWidth, config.cowHeight);
+        this.config = config;
+        this.colNr = 8;
+        this.frameMillis = COW_FRAME_MILLIS;
+        this.x = config.width / 6;
+        this.y = config.height / 2;    // Startposition in in the middle of the screen
+    }
+
+    void copyFrom(Player other) {
+        super.copyFrom(other);
+        this.isDead = other.isDead;
+        this.isNyanCat = other.isNyanCat;
+    }
+
+    /**
+     * Moves the character by one tick to 1/6 of the horizontal screen
+     * Manages the speed changes -> Falling
+     * and the frames. (flattering cape)
+     */
+    public void move() {
+        float seconds = config.tickSeconds;
+        changeToNextFrame(config.tickMillis);
+
+        this.x = config.width / 6;
+
+        if (speedY < 0) {
+            // The character is moving up, integrated exactly so every tick rate rises as high
+            float difference = speedY - config.riseSpeed;
+            this.y += config.riseSpeed * seconds + difference * config.riseSeconds;
+            this.speedY = config.riseSpeed + difference * config.riseFactor;
+        } else {
+            // the character is moving down
+            this.speedY += config.gravity * seconds;
+
+            if (this.speedY > config.maxFallSpeed) {
+                // speed limit
+                this.speedY = config.maxFallSpeed;
+            }
+
+            super.move(seconds);
+        }
+
+        // manage frames
+        if (!isNyanCat && row != COW_DEAD_ROW) {
+            // not dead
+            if (speedY > getTabSpeed() / 3 && speedY < getMaxSpeed() * 1 / 3) {
+                row = 0;
+            } else if (speedY > 0) {
+                row = 1;
+            } else {
+                row = 2;
+            }
+        }
+    }
+
+    /**
+     * A dead character falls slowly to the ground.
+     */
+    public void dead() {
+        if (isNyanCat) {
+            this.row = NYAN_CAT_DEAD_ROW;
+        } else {
+            this.row = COW_DEAD_ROW;
+            this.frameMillis = COW_FRAME_MILLIS;
+        }
+        this.isDead = true;
+        this.speedY = getMaxSpeed() / 2;
+    }
+
+    /**
+     * Let the character flap up.
+     */
+    public void onTap() {
+        this.speedY = getTabSpeed();
+        this.y += getPosTabIncrease();
+    }
+
+    /**
+     * Sets the character back to life.
+     */
+    void revive() {
+        this.isDead = false;
+        this.row = 0;
+    }
+
+    /**
+     * The cow becomes nyan cat.
+     */
+    void changeToNyanCat() {
+        this.isNyanCat = true;
+        this.width = config.nyanCatWidth;
+        this.height = config.nyanCatHeight;
+        this.colNr = 1;
+        this.col = 0;
+        this.row = 0;
+        this.frameMillis = NYAN_CAT_FRAME_MILLIS;
+    }
+
+    /**
+     * Falling speed limit, in pixels per second
+     */
+    public float getMaxSpeed() {
+        // 500 @ 720x1280 px
+        return config.maxFallSpeed;
+    }
+
+    /**
+     * Every second the speed towards the ground will increase by this.
+     */
+    public float getSpeedTimeDecrease() {
+        // 1600 @ 720x1280 px
+        return config.gravity;
+    }
+
+    /**
+     * The character gets this speed when taped, in pixels per second.
+     */
+    public float getTabSpeed() {
+        // -1275 @ 720x1280 px
+        return config.tapSpeed;
+    }
+
+    /**
+     * The character jumps up the pixel height of this value.
+     */
+    public float getPosTabIncrease() {
+        // -12.8 @ 720x1280 px
+        return config.tapJump;
+    }
+
+    /**
+     * Checks whether the character is touching the ground or the sky.
+     */
+    public boolean isTouchingEdge() {
+        return isTouchingGround() || isTouchingSky();
+    }
+
+    /**
+     * Checks whether the character is touching the ground.
+     */
+    public boolean isTouchingGround() {
+        return this.y + this.height > config.height - config.height * WorldConfig.GROUND_HEIGHT;
+    }
+
+    /**
+     * Checks whether the character is touching the sky.
+     */
+    public boolean isTouchingSky() {
+        return this.y < 0;
+    }
+
+    public boolean isDead() {
+        return isDead;
+    }
+
+    public boolean isNyanCat() {
+        return isNyanCat;
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Durations of the phases of a tick and of a frame
+ * <p>
+ * Every phase has its own {@link Histogram}, so recording doesn't allocate.
+ * Not thread safe, it's meant to be used by the game loop only.
+ */
+
+package edu.ucsd.flappycow.core;
+
+import java.io.IOException;
+import java.util.Locale;
+
+public class Profiler {
+    public static final int CHECK_PASSES = 0;
+    public static final int CHECK_OUT_OF_RANGE = 1;
+    public static final int CHECK_COLLISION = 2;
+    public static final int CREATE_OBSTACLE = 3;
+    public static final int MOVE = 4;
+    public static final int DRAW = 5;
+    public static final int LOCK_CANVAS = 6;
+    public static final int POST_CANVAS = 7;
+    public static final int RECORD = 8;
+
+    /** Number of phases */
+    public static final int PHASES = 9;
+
+    private static final String[] NAMES = {
+        "checkPasses",
+        "checkOutOfRange",
+        "checkCollision",
+        "createObstacle",
+        "move",
+        "draw",
+        "lockCanvas",
+        "unlockCanvasAndPost",
+        "recordFrame"
+    };
+
+    private final Histogram[] histograms = new Histogram[PHASES];
+
+    public Profiler() {
+        for (int i = 0; i < PHASES; i++) {
+            histograms[i] = new Histogram();
+        }
+    }
+
+    /**
+     * Records the time since start for the phase.
+     * The returned time can be the start of the next phase, so they are timed back to back.
+     *
+     * @param start {@link System#nanoTime()} at the start of the phase
+     * @return the current {@link System#nanoTime()}
+     */
+    public long lap(int phase, long start) {
+        long now = System.nanoTime();
+        histograms[phase].record(now - start);
+        return now;
+    }
+
+    public Histogram getHistogram(int phase) {
+        return histograms[phase];
+    }
+
+    public static String getName(int phase) {
+        return NAMES[phase];
+    }
+
+    /**
+     * Whether anything was recorded since the last reset.
+     */
+    public boolean isEmpty() {
+        for (int i = 0; i < PHASES; i++) {
+            if (histograms[i].getCount() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void reset() {
+        for (int i = 0; i < PHASES; i++) {
+            histograms[i].reset();
+        }
+    }
+
+    /**
+     * Writes a table of the percentiles of every phase, in microseconds.
+     */
+    public void dump(Appendable out) throws IOException {
+        out.append(String.format(Locale.US, "%-20s %8s %9s %9s %9s %9s%n", "phase", "count", "p50", "p95", "p99", "max"));
+        for (int i = 0; i < PHASES; i++) {
+            Histogram h = histograms[i];
+            out.append(String.format(Locale.US, "%-20s %8d %9.1f %9.1f %9.1f %9.1f%n", NAMES[i], h.getCount(),
+                h.getValueAtPercentile(50) / 1000f, h.getValueAtPercentile(95) / 1000f,
+                h.getValueAtPercentile(99) / 1000f, h.getMax() / 1000f));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Where the sprites of a frame are drawn to
+ * <p>
+ * A sprite is a rectangle of a texture, drawn to a rectangle of the screen on one of the layers.
+ * The textures are ints, what they stand for is up to the backend, e.g. a bitmap.
+ * Within a layer, sprites of different textures must not overlap,
+ * so a backend may draw them sorted by texture.
+ */
+
+package edu.ucsd.flappycow.core;
+
+public interface Renderer {
+
+    /** The layers, from the bottom to the top */
+    int LAYER_BACKGROUND = 0;
+    int LAYER_OBSTACLES = 1;
+    int LAYER_POWER_UPS = 2;
+    int LAYER_PLAYER = 3;
+    int LAYER_ACCESSORY = 4;
+    int LAYER_FRONTGROUND = 5;
+    int LAYER_BUTTONS = 6;
+    int LAYER_HUD = 7;
+    int LAYER_TUTORIAL = 8;
+    int LAYER_OVERLAY = 9;
+
+    /** Number of layers */
+    int LAYERS = 10;
+
+    /**
+     * Draws the source rectangle of the texture to the destination rectangle, scaled if the sizes differ.
+     */
+    void draw(int texture, int srcLeft, int srcTop, int srcRight, int srcBottom,
+              int dstLeft, int dstTop, int dstRight, int dstBottom, int layer);
+
+    /**
+     * The pixels of the texture changed, e.g. a text was rendered into it.
+     * Draws of it afterwards have to show the new pixels.
+     */
+    void textureChanged(int texture);
+}
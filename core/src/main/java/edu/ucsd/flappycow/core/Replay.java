@@ -0,0 +1,357 @@
+/**
+ * The seed and the inputs of a run, enough to simulate it again tick by tick
+ * <p>
+ * The file format is compact, a run takes a few hundred bytes:
+ * <pre>
+ * "FCR" version     4 bytes
+ * seed              8 bytes
+ * width, height     varints
+ * scale factor      4 bytes, float bits
+ * tick length       4 bytes, float bits, seconds
+ * flags             1 byte, FLAG_MASKS
+ * masks hash        8 bytes, CollisionMasks.hash(), only with FLAG_MASKS
+ * event count       varint
+ * events            varint each: (ticks since the last event) << 1 | type
+ * ticks             varint, number of steps
+ * points            zigzag varint, at the end of the run
+ * coins             varint, collected in the run
+ * achievements      1 byte, World.ACHIEVEMENT_* flags earned in the run
+ * </pre>
+ * The end of the run is what the player claims, {@link #verify(CollisionMasks)} checks it.
+ * The masks hash names the masks the run has to be played with, a verifier has to bring its own.
+ * Version 1 runs were simulated in whole pixels per tick, version 2 runs don't name their masks,
+ * they can't be played anymore.
+ */
+
+package edu.ucsd.flappycow.core;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+public class Replay {
+
+    /** The player tapped in this tick */
+    public static final int TAP = 0;
+
+    /** The player was revived before this tick, after falling to the ground */
+    public static final int REVIVE = 1;
+
+    /** The run used collision masks, it has to be played with the same ones */
+    public static final int FLAG_MASKS = 1;
+
+    private static final int VERSION = 3;
+
+    /** Limits of the header, a replay beyond them is corrupt or forged */
+    private static final int MAX_SCREEN_SIZE = 1 << 14;
+    private static final float MAX_SCALE_FACTOR = 16;
+    private static final float MIN_TICK_SECONDS = 0.001f;
+    private static final float MAX_TICK_SECONDS = 1;
+
+    /** More than two days at 20 Hz */
+    private static final int MAX_TICKS = 1 << 22;
+
+    /** Steps the dead player may take to fall to the ground, it needs a few dozen */
+    private static final int MAX_FALL_STEPS = 1 << 16;
+
+    private final long seed;
+    private final int width;
+    private final int height;
+    private final float scaleFactor;
+    private final float tickSeconds;
+    private final int flags;
+    private final long masksHash;
+
+    /** tick << 1 | type */
+    private int[] events = new int[64];
+    private int eventCount;
+
+    private int ticks;
+    private int points;
+    private int coins;
+    private int achievements;
+
+    /**
+     * @param masks the collision masks of the run, null if it has none
+     */
+    public Replay(long seed, WorldConfig config, CollisionMasks masks) {
+        this(seed, config.width, config.height, config.scaleFactor, config.tickSeconds,
+            masks != null ? FLAG_MASKS : 0, masks != null ? masks.hash() : 0);
+    }
+
+    private Replay(long seed, int width, int height, float scaleFactor, float tickSeconds, int flags, long masksHash) {
+        this.seed = seed;
+        this.width = width;
+        this.height = height;
+        this.scaleFactor = scaleFactor;
+        this.tickSeconds = tickSeconds;
+        this.flags = flags;
+        this.masksHash = masksHash;
+    }
+
+    /**
+     * Adds an event, the ticks have to be in order.
+     */
+    void add(int tick, int type) {
+        if (eventCount == events.length) {
+            events = Arrays.copyOf(events, eventCount * 2);
+        }
+        events[eventCount++] = tick << 1 | type;
+    }
+
+    /**
+     * Sets how the run ended, so a replay can be checked.
+     */
+    void setEnd(int ticks, int points, int coins, int achievements) {
+        this.ticks = ticks;
+        this.points = points;
+        this.coins = coins;
+        this.achievements = achievements;
+    }
+
+    /**
+     * Simulates the run again.
+     *
+     * @param masks the masks the run was recorded with, if FLAG_MASKS is set
+     * @return the world after the last tick
+     * @throws IllegalArgumentException if the run needs masks and they aren't the ones it names
+     */
+    public World play(CollisionMasks masks) {
+        WorldConfig config = createConfig();
+        World world = new World(config, seed);
+        if ((flags & FLAG_MASKS) != 0) {
+            if (masks == null) {
+                throw new IllegalArgumentException("The replay needs collision masks");
+            }
+            if (masks.hash() != masksHash || !masks.fits(config)) {
+                throw new IllegalArgumentException("The replay was recorded with other collision masks");
+            }
+            world.setCollisionMasks(masks);
+        }
+        int e = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            int input = World.INPUT_NONE;
+            for (; e < eventCount && events[e] >>> 1 == tick; e++) {
+                if ((events[e] & 1) == REVIVE) {
+                    fallAndRevive(world);
+                } else {
+                    input = World.INPUT_TAP;
+                }
+            }
+            world.step(input);
+        }
+        return world;
+    }
+
+    private WorldConfig createConfig() {
+        return new WorldConfig(width, height, scaleFactor, new Difficulty(), tickSeconds);
+    }
+
+    /**
+     * Whether the run can be played with the masks: they have the hash the run names
+     * and fit the sprites of its screen.
+     */
+    public boolean matches(CollisionMasks masks) {
+        return needsMasks() && masks.hash() == masksHash && masks.fits(createConfig());
+    }
+
+    /**
+     * Like the app does it after a game over: the player falls to the ground, then is revived.
+     */
+    private static void fallAndRevive(World world) {
+        Player player = world.getPlayer();
+        player.dead();
+        int steps = 0;
+        do {
+            if (++steps > MAX_FALL_STEPS) {
+                throw new IllegalArgumentException("The player doesn't reach the ground");
+            }
+            player.move();
+        } while (!player.isTouchingGround());
+        world.revive();
+    }
+
+    /**
+     * Whether playing the run again ends with the same points, coins and achievements.
+     */
+    public boolean verify(CollisionMasks masks) {
+        World world = play(masks);
+        return world.getPoints() == points
+            && world.getCoins() == coins
+            && world.getAchievements() == achievements;
+    }
+
+    public void write(OutputStream out) throws IOException {
+        out.write('F');
+        out.write('C');
+        out.write('R');
+        out.write(VERSION);
+        writeLong(out, seed);
+        writeVarint(out, width);
+        writeVarint(out, height);
+        writeFloat(out, scaleFactor);
+        writeFloat(out, tickSeconds);
+        out.write(flags);
+        if ((flags & FLAG_MASKS) != 0) {
+            writeLong(out, masksHash);
+        }
+        writeVarint(out, eventCount);
+        int lastTick = 0;
+        for (int i = 0; i < eventCount; i++) {
+            int tick = events[i] >>> 1;
+            writeVarint(out, (tick - lastTick) << 1 | (events[i] & 1));
+            lastTick = tick;
+        }
+        writeVarint(out, ticks);
+        writeVarint(out, (points << 1) ^ (points >> 31));
+        writeVarint(out, coins);
+        out.write(achievements);
+    }
+
+    /**
+     * @throws IOException if it isn't a replay, or the header is beyond the limits of a real run
+     */
+    public static Replay read(InputStream in) throws IOException {
+        if (readByte(in) != 'F' || readByte(in) != 'C' || readByte(in) != 'R') {
+            throw new IOException("Not a replay");
+        }
+        int version = readByte(in);
+        if (version != VERSION) {
+            throw new IOException("Unknown replay version " + version);
+        }
+        long seed = readLong(in);
+        int width = readVarint(in);
+        int height = readVarint(in);
+        float scaleFactor = readFloat(in);
+        float tickSeconds = readFloat(in);
+        int flags = readByte(in);
+        check(width > 0 && width <= MAX_SCREEN_SIZE && height > 0 && height <= MAX_SCREEN_SIZE,
+            "Screen size " + width + "x" + height);
+        check(scaleFactor > 0 && scaleFactor <= MAX_SCALE_FACTOR, "Scale factor " + scaleFactor);
+        check(tickSeconds >= MIN_TICK_SECONDS && tickSeconds <= MAX_TICK_SECONDS, "Tick length " + tickSeconds);
+        check((flags & ~FLAG_MASKS) == 0, "Flags " + flags);
+        long masksHash = (flags & FLAG_MASKS) != 0 ? readLong(in) : 0;
+        Replay replay = new Replay(seed, width, height, scaleFactor, tickSeconds, flags, masksHash);
+        int count = readVarint(in);
+        check(count >= 0, "Event count " + count);
+        long tick = 0;
+        for (int i = 0; i < count; i++) {
+            int event = readVarint(in);
+            tick += event >>> 1;
+            check(tick <= MAX_TICKS, "Event at tick " + tick);
+            replay.add((int) tick, event & 1);
+        }
+        int ticks = readVarint(in);
+        check(ticks >= 0 && ticks <= MAX_TICKS && tick <= ticks, "Ticks " + ticks + ", last event at " + tick);
+        int points = readVarint(in);
+        replay.setEnd(ticks, (points >>> 1) ^ -(points & 1), readVarint(in), readByte(in));
+        return replay;
+    }
+
+    /**
+     * Throws, if the header value is out of range. The comparisons are false for NaN.
+     */
+    private static void check(boolean valid, String what) throws IOException {
+        if (!valid) {
+            throw new IOException("Not a valid replay: " + what);
+        }
+    }
+
+    private static void writeLong(OutputStream out, long value) throws IOException {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    private static long readLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = value << 8 | readByte(in);
+        }
+        return value;
+    }
+
+    private static void writeFloat(OutputStream out, float value) throws IOException {
+        int bits = Float.floatToIntBits(value);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            out.write(bits >>> shift);
+        }
+    }
+
+    private static float readFloat(InputStream in) throws IOException {
+        int bits = 0;
+        for (int i = 0; i < 4; i++) {
+            bits = bits << 8 | readByte(in);
+        }
+        return Float.intBitsToFloat(bits);
+    }
+
+    private static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte(in);
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException();
+        }
+        return b;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public int getCoins() {
+        return coins;
+    }
+
+    public int getAchievements() {
+        return achievements;
+    }
+
+    /**
+     * CollisionMasks.hash() of the masks the run was recorded with, 0 if it has none
+     */
+    public long getMasksHash() {
+        return masksHash;
+    }
+
+    public boolean needsMasks() {
+        return (flags & FLAG_MASKS) != 0;
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Records the inputs of a world into a {@link Replay}
+ * <p>
+ * Has to see every step and every revive of the world, in order.
+ */
+
+package edu.ucsd.flappycow.core;
+
+public class ReplayRecorder {
+    private final World world;
+    private final Replay replay;
+    private int tick;
+
+    /**
+     * @param masks the collision masks of the world, null if it has none
+     */
+    public ReplayRecorder(World world, CollisionMasks masks) {
+        this.world = world;
+        this.replay = new Replay(world.getSeed(), world.getConfig(), masks);
+    }
+
+    /**
+     * Call with the input right before the world steps with it.
+     */
+    public void onStep(int input) {
+        if ((input & World.INPUT_TAP) != 0) {
+            replay.add(tick, Replay.TAP);
+        }
+        tick++;
+    }
+
+    /**
+     * Call when the world is revived, after the player fell to the ground.
+     */
+    public void onRevive() {
+        replay.add(tick, Replay.REVIVE);
+    }
+
+    /**
+     * The run so far, ending with the current points, coins and achievements of the world.
+     * Recording can go on afterwards.
+     */
+    public Replay getReplay() {
+        replay.setEnd(tick, world.getPoints(), world.getCoins(), world.getAchievements());
+        return replay;
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * A seeded random number generator (SplitMix64)
+ * <p>
+ * The same seed gives the same numbers on every JVM and device,
+ * so a run of the world can be replayed. The whole state is one long.
+ */
+
+package edu.ucsd.flappycow.core;
+
+public class Rng {
+    private long state;
+
+    public Rng(long seed) {
+        this.state = seed;
+    }
+
+    public long nextLong() {
+        long z = (state += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * A number from 0 (inclusive) to 1 (exclusive)
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Continues with the numbers of the other generator.
+     */
+    public void copyFrom(Rng other) {
+        this.state = other.state;
+    }
+}
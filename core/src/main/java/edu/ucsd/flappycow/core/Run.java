@@ -0,0 +1,53 @@
+/**
+ * A finished run, as it is kept in the {@link RunHistory}
+ */
+
+package edu.ucsd.flappycow.core;
+
+public class Run {
+
+    /** Characters the run ended with */
+    public static final int COW = 0;
+    public static final int NYAN_CAT = 1;
+
+    /** End of the run, milliseconds since the epoch */
+    final long time;
+    final int durationMillis;
+    final int points;
+    final int coins;
+    final int revives;
+    final int character;
+
+    public Run(long time, int durationMillis, int points, int coins, int revives, int character) {
+        this.time = time;
+        this.durationMillis = durationMillis;
+        this.points = points;
+        this.coins = coins;
+        this.revives = revives;
+        this.character = character;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public int getDurationMillis() {
+        return durationMillis;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public int getCoins() {
+        return coins;
+    }
+
+    public int getRevives() {
+        return revives;
+    }
+
+    public int getCharacter() {
+        return character;
+    }
+}
@@ -0,0 +1,546 @@
+/**
+ * All finished runs, in an append-only log with an index for the leaderboard
+ * <p>
+ * The log holds fixed size records in the order they were added,
+ * so a record is found by its number and a crash can only cut off the last one:
+ * <pre>
+ * "FCH" version     4 bytes
+ * records           24 bytes each:
+ *   time            8 bytes, end of the run, milliseconds since the epoch
+ *   duration        4 bytes, milliseconds
+ *   points          4 bytes
+ *   coins           4 bytes
+ *   revives         2 bytes
+ *   character       1 byte, Run.COW or Run.NYAN_CAT
+ *   reserved        1 byte, 0
+ * </pre>
+ * The index is memory-mapped and covers the first records of the log:
+ * <pre>
+ * "FCI" version     4 bytes
+ * records           4 bytes, number of records it covers
+ * time zone         4 bytes, hash of the id of the zone the times are cut into days in
+ * day count         4 bytes
+ * by points         8 bytes each: points, record. Ascending, on equal points the newer record first
+ * days              16 bytes each: day, runs, best points, coins. Ascending by day
+ * </pre>
+ * So the queries are binary searches in the index.
+ * The newer records are kept in memory, sorted by points too, and scanned for the days.
+ * Once there are TAIL_LIMIT of them, they are merged with the old index into a new one, which replaces it.
+ */
+
+package edu.ucsd.flappycow.core;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimeZone;
+
+public class RunHistory implements Closeable {
+    public static final String LOG_FILE = "runs.log";
+    public static final String INDEX_FILE = "runs.idx";
+
+    /** Number of records that are kept in memory, before they are merged into the index */
+    static final int TAIL_LIMIT = 1024;
+
+    private static final int LOG_MAGIC = 'F' << 24 | 'C' << 16 | 'H' << 8 | 1;
+    private static final int INDEX_MAGIC = 'F' << 24 | 'C' << 16 | 'I' << 8 | 2;
+
+    private static final int LOG_HEADER = 4;
+    private static final int RECORD_SIZE = 24;
+    private static final int INDEX_HEADER = 16;
+    private static final int POINTS_ENTRY = 8;
+    private static final int DAY_ENTRY = 16;
+
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private final File dir;
+
+    /** The days start at midnight in this zone, with the offset the zone had at the time, daylight saving included */
+    private final TimeZone zone;
+
+    private FileChannel log;
+
+    /** Records in the log */
+    private int size;
+
+    /** The first records of the log, mapped, and their index */
+    private ByteBuffer indexedLog;
+    private ByteBuffer index;
+    private int indexed;
+    private int days;
+
+    /** The records after the indexed ones */
+    private final Run[] tail = new Run[TAIL_LIMIT];
+    private int tailSize;
+
+    /** Keys of the tail by points, kept sorted like the index */
+    private final long[] tailKeys = new long[TAIL_LIMIT];
+
+    /**
+     * Opens the history in the directory, or starts a new one.
+     *
+     * @param zone the times are cut into days in this zone, e.g. the default one.
+     *             The index is rebuilt, if it changes.
+     */
+    public RunHistory(File dir, TimeZone zone) throws IOException {
+        this.dir = dir;
+        this.zone = (TimeZone) zone.clone();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Couldn't create " + dir);
+        }
+        openLog();
+        openIndex();
+        if (size - indexed >= TAIL_LIMIT) {
+            merge();
+        } else {
+            ByteBuffer records = mapLog();
+            for (int record = indexed; record < size; record++) {
+                addToTail(read(records, record));
+            }
+        }
+    }
+
+    private void openLog() throws IOException {
+        File file = new File(dir, LOG_FILE);
+        log = FileChannel.open(file.toPath(),
+            StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        long length = log.size();
+        if (length < LOG_HEADER) {
+            ByteBuffer header = ByteBuffer.allocate(LOG_HEADER);
+            header.putInt(0, LOG_MAGIC);
+            log.truncate(0);
+            writeFully(header, 0);
+            length = LOG_HEADER;
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(LOG_HEADER);
+            while (header.hasRemaining() && log.read(header, header.position()) > 0) {
+                // read the rest
+            }
+            if (header.getInt(0) != LOG_MAGIC) {
+                log.close();
+                throw new IOException("Not a run history: " + file);
+            }
+        }
+        size = (int) ((length - LOG_HEADER) / RECORD_SIZE);
+        long end = LOG_HEADER + (long) size * RECORD_SIZE;
+        if (length != end) {
+            // A crash cut off the last record
+            log.truncate(end);
+        }
+    }
+
+    /**
+     * Maps the index, if there is one that fits the log.
+     */
+    private void openIndex() throws IOException {
+        File file = new File(dir, INDEX_FILE);
+        if (!file.exists()) {
+            return;
+        }
+        ByteBuffer index = map(file);
+        if (index.capacity() < INDEX_HEADER
+            || index.getInt(0) != INDEX_MAGIC
+            || index.getInt(8) != zone.getID().hashCode()) {
+            return;
+        }
+        int indexed = index.getInt(4);
+        int days = index.getInt(12);
+        if (indexed < 0 || indexed > size || days < 0
+            || index.capacity() != INDEX_HEADER + (long) indexed * POINTS_ENTRY + (long) days * DAY_ENTRY) {
+            return;
+        }
+        this.index = index;
+        this.indexed = indexed;
+        this.days = days;
+        this.indexedLog = log.map(FileChannel.MapMode.READ_ONLY, 0, LOG_HEADER + (long) indexed * RECORD_SIZE);
+    }
+
+    /**
+     * Appends the run to the log.
+     * Every TAIL_LIMIT runs, this writes a new index, which takes a few milliseconds for a big history.
+     * The log isn't synced for every run, a crash can lose the last ones, but never the indexed ones.
+     */
+    public void add(Run run) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        put(record, run);
+        record.flip();
+        writeFully(record, LOG_HEADER + (long) size * RECORD_SIZE);
+        size++;
+        if (size - indexed >= TAIL_LIMIT) {
+            merge();
+        } else {
+            addToTail(run);
+        }
+    }
+
+    private void addToTail(Run run) {
+        long key = pointsKey(run.points, indexed + tailSize);
+        int i = tailSize;
+        for (; i > 0 && tailKeys[i - 1] > key; i--) {
+            tailKeys[i] = tailKeys[i - 1];
+        }
+        tailKeys[i] = key;
+        tail[tailSize++] = run;
+    }
+
+    /**
+     * Writes a new index for all records, from the old index and the records after it.
+     */
+    private void merge() throws IOException {
+        // The index must not cover records, that a crash could still take
+        log.force(false);
+        ByteBuffer records = mapLog();
+
+        int n = size - indexed;
+        long[] byPoints = new long[n];
+        long[] byDay = new long[n];
+        for (int i = 0; i < n; i++) {
+            int record = indexed + i;
+            int offset = LOG_HEADER + record * RECORD_SIZE;
+            byPoints[i] = pointsKey(records.getInt(offset + 12), record);
+            byDay[i] = (long) day(records.getLong(offset)) << 32 | record;
+        }
+        Arrays.sort(byPoints);
+        Arrays.sort(byDay);
+
+        // The days of the old index and of the new records, merged by day
+        int[] day = new int[days + n];
+        int[] runs = new int[days + n];
+        int[] best = new int[days + n];
+        int[] coins = new int[days + n];
+        int count = 0;
+        for (int i = 0, d = 0; i < n || d < days; count++) {
+            int next = i < n ? (int) (byDay[i] >> 32) : Integer.MAX_VALUE;
+            if (d < days && index.getInt(dayEntry(d)) <= next) {
+                int offset = dayEntry(d++);
+                next = index.getInt(offset);
+                runs[count] = index.getInt(offset + 4);
+                best[count] = index.getInt(offset + 8);
+                coins[count] = index.getInt(offset + 12);
+            } else {
+                best[count] = Integer.MIN_VALUE;
+            }
+            day[count] = next;
+            for (; i < n && (int) (byDay[i] >> 32) == next; i++) {
+                int offset = LOG_HEADER + (int) byDay[i] * RECORD_SIZE;
+                runs[count]++;
+                best[count] = Math.max(best[count], records.getInt(offset + 12));
+                coins[count] += records.getInt(offset + 16);
+            }
+        }
+
+        File temp = new File(dir, INDEX_FILE + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(size);
+            out.writeInt(zone.getID().hashCode());
+            out.writeInt(count);
+            // Both the old entries and the new ones are sorted
+            for (int a = 0, b = 0; a < indexed || b < n; ) {
+                long key = b == n || (a < indexed && indexKey(a) <= byPoints[b]) ? indexKey(a++) : byPoints[b++];
+                out.writeInt((int) (key >> 32));
+                out.writeInt(~(int) key);
+            }
+            for (int i = 0; i < count; i++) {
+                out.writeInt(day[i]);
+                out.writeInt(runs[i]);
+                out.writeInt(best[i]);
+                out.writeInt(coins[i]);
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        File indexFile = new File(dir, INDEX_FILE);
+        if (!temp.renameTo(indexFile)) {
+            throw new IOException("Couldn't rename " + temp);
+        }
+
+        index = map(indexFile);
+        indexedLog = records;
+        indexed = size;
+        days = count;
+        Arrays.fill(tail, 0, tailSize, null);
+        tailSize = 0;
+    }
+
+    /**
+     * Drops the runs that are neither among the best ones nor recent, e.g. those of old automated sessions.
+     * The log and the index are written anew.
+     *
+     * @param keepBest number of runs with the most points that are kept
+     * @param keepSince runs that ended at this time or later are kept
+     */
+    public void compact(int keepBest, long keepSince) throws IOException {
+        boolean[] keep = new boolean[size];
+        for (int record : topRecords(keepBest)) {
+            keep[record] = true;
+        }
+
+        File temp = new File(dir, LOG_FILE + ".tmp");
+        int kept = 0;
+        try (FileOutputStream file = new FileOutputStream(temp)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            out.writeInt(LOG_MAGIC);
+            for (int i = 0; i < size; i++) {
+                Run run = get(i);
+                if (keep[i] || run.time >= keepSince) {
+                    record.clear();
+                    put(record, run);
+                    out.write(record.array());
+                    kept++;
+                }
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+
+        log.close();
+        // The record numbers change. Without an index, a crash before the new one costs only a rebuild
+        File indexFile = new File(dir, INDEX_FILE);
+        if (indexFile.exists() && !indexFile.delete()) {
+            throw new IOException("Couldn't delete " + indexFile);
+        }
+        if (!temp.renameTo(new File(dir, LOG_FILE))) {
+            throw new IOException("Couldn't rename " + temp);
+        }
+
+        index = null;
+        indexedLog = null;
+        indexed = 0;
+        days = 0;
+        Arrays.fill(tail, 0, tailSize, null);
+        tailSize = 0;
+        openLog();
+        if (size != kept) {
+            throw new IOException("Compacted log has " + size + " records instead of " + kept);
+        }
+        merge();
+    }
+
+    /**
+     * Number of runs
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The run with the given number, in the order they were added.
+     */
+    public Run get(int record) {
+        if (record < 0 || record >= size) {
+            throw new IndexOutOfBoundsException("Run " + record + " of " + size);
+        }
+        return record < indexed ? read(indexedLog, record) : tail[record - indexed];
+    }
+
+    /**
+     * The runs with the most points, the best first. On equal points the older run comes first.
+     */
+    public List<Run> getTop(int n) {
+        int[] records = topRecords(n);
+        List<Run> top = new ArrayList<>(records.length);
+        for (int record : records) {
+            top.add(get(record));
+        }
+        return top;
+    }
+
+    private int[] topRecords(int n) {
+        int[] top = new int[Math.max(0, Math.min(n, size))];
+        int a = indexed - 1;
+        int b = tailSize - 1;
+        for (int i = 0; i < top.length; i++) {
+            // The indexed runs are older, so they win on equal points
+            if (b < 0 || (a >= 0 && index.getInt(pointsEntry(a)) >= (int) (tailKeys[b] >> 32))) {
+                top[i] = index.getInt(pointsEntry(a--) + 4);
+            } else {
+                top[i] = ~(int) tailKeys[b--];
+            }
+        }
+        return top;
+    }
+
+    /**
+     * The place on the leaderboard a run with the points gets, 1 if no run has more points.
+     */
+    public int getRank(int points) {
+        return size - countBelow(points + 1L) + 1;
+    }
+
+    /**
+     * Percentage of the runs with fewer points, 0 if there are no runs.
+     */
+    public float getPercentile(int points) {
+        return size == 0 ? 0 : 100f * countBelow(points) / size;
+    }
+
+    /**
+     * Number of runs with fewer points
+     */
+    private int countBelow(long points) {
+        int low = 0;
+        int high = indexed;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (index.getInt(pointsEntry(mid)) < points) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int count = low;
+        low = 0;
+        high = tailSize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if ((int) (tailKeys[mid] >> 32) < points) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return count + low;
+    }
+
+    /**
+     * Number of runs that ended on the day of the given time
+     */
+    public int getRunsOn(long time) {
+        int day = day(time);
+        int d = findDay(day);
+        int runs = d < 0 ? 0 : index.getInt(dayEntry(d) + 4);
+        for (int i = 0; i < tailSize; i++) {
+            if (day(tail[i].time) == day) {
+                runs++;
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * The most points of a run on the day of the given time, 0 if there was none.
+     */
+    public int getBestOn(long time) {
+        int day = day(time);
+        int d = findDay(day);
+        int best = d < 0 ? Integer.MIN_VALUE : index.getInt(dayEntry(d) + 8);
+        for (int i = 0; i < tailSize; i++) {
+            if (day(tail[i].time) == day) {
+                best = Math.max(best, tail[i].points);
+            }
+        }
+        return best == Integer.MIN_VALUE ? 0 : best;
+    }
+
+    /**
+     * Coins collected in the runs on the day of the given time
+     */
+    public int getCoinsOn(long time) {
+        int day = day(time);
+        int d = findDay(day);
+        int coins = d < 0 ? 0 : index.getInt(dayEntry(d) + 12);
+        for (int i = 0; i < tailSize; i++) {
+            if (day(tail[i].time) == day) {
+                coins += tail[i].coins;
+            }
+        }
+        return coins;
+    }
+
+    /**
+     * @return the index of the entry of the day, -1 if it isn't indexed
+     */
+    private int findDay(int day) {
+        int low = 0;
+        int high = days - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = index.getInt(dayEntry(mid));
+            if (value < day) {
+                low = mid + 1;
+            } else if (value > day) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+    private int day(long time) {
+        return (int) Math.floorDiv(time + zone.getOffset(time), DAY_MILLIS);
+    }
+
+    /**
+     * Sorts by points, and on equal points the newer record first.
+     */
+    private static long pointsKey(int points, int record) {
+        return (long) points << 32 | (~record & 0xFFFFFFFFL);
+    }
+
+    private long indexKey(int i) {
+        int offset = pointsEntry(i);
+        return pointsKey(index.getInt(offset), index.getInt(offset + 4));
+    }
+
+    private static int pointsEntry(int i) {
+        return INDEX_HEADER + i * POINTS_ENTRY;
+    }
+
+    private int dayEntry(int d) {
+        return INDEX_HEADER + indexed * POINTS_ENTRY + d * DAY_ENTRY;
+    }
+
+    private static void put(ByteBuffer record, Run run) {
+        record.putLong(run.time)
+            .putInt(run.durationMillis)
+            .putInt(run.points)
+            .putInt(run.coins)
+            .putShort((short) run.revives)
+            .put((byte) run.character)
+            .put((byte) 0);
+    }
+
+    private static Run read(ByteBuffer records, int record) {
+        int offset = LOG_HEADER + record * RECORD_SIZE;
+        return new Run(records.getLong(offset),
+            records.getInt(offset + 8),
+            records.getInt(offset + 12),
+            records.getInt(offset + 16),
+            records.getShort(offset + 20) & 0xFFFF,
+            records.get(offset + 22) & 0xFF);
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += log.write(buffer, position);
+        }
+    }
+
+    private ByteBuffer mapLog() throws IOException {
+        return log.map(FileChannel.MapMode.READ_ONLY, 0, LOG_HEADER + (long) size * RECORD_SIZE);
+    }
+
+    private static ByteBuffer map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
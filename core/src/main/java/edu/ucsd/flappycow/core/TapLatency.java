@@ -0,0 +1,105 @@
+/**
+ * How long a tap takes until the tick that handles it, and until the first frame that shows it
+ * <p>
+ * A tap is queued with the time of its touch event, ticked when the world handles it,
+ * and shown when the next frame is posted. Taps that are merged into one tick are measured once,
+ * by the earliest of them. Both histograms keep the whole session.
+ * Not thread safe, it's meant to be used by the game loop only.
+ */
+
+package edu.ucsd.flappycow.core;
+
+import java.io.IOException;
+import java.util.Locale;
+
+public class TapLatency {
+
+    /** Ticked taps that wait for a frame, more aren't measured */
+    private static final int MAX_TICKED = 8;
+
+    private final Histogram toTick = new Histogram();
+    private final Histogram toFrame = new Histogram();
+
+    /** Touch time of the tap for the next tick */
+    private boolean queued;
+    private long queuedNanos;
+
+    /** Touch times of the ticked taps that aren't shown yet */
+    private final long[] tickedNanos = new long[MAX_TICKED];
+    private int ticked;
+
+    /**
+     * A tap will be handed to the world with the next tick.
+     *
+     * @param tapNanos time of the touch event, on the clock of System.nanoTime()
+     */
+    public void onQueued(long tapNanos) {
+        if (!queued) {
+            queued = true;
+            queuedNanos = tapNanos;
+        }
+    }
+
+    /**
+     * A tick is done.
+     *
+     * @param tapped whether the world got the queued tap, e.g. not if the autopilot plays
+     */
+    public void onTick(boolean tapped, long nowNanos) {
+        if (!queued) {
+            return;
+        }
+        queued = false;
+        if (tapped) {
+            toTick.record(nowNanos - queuedNanos);
+            if (ticked < MAX_TICKED) {
+                tickedNanos[ticked++] = queuedNanos;
+            }
+        }
+    }
+
+    /**
+     * A frame was posted, it shows every ticked tap.
+     */
+    public void onFramePosted(long nowNanos) {
+        for (int i = 0; i < ticked; i++) {
+            toFrame.record(nowNanos - tickedNanos[i]);
+        }
+        ticked = 0;
+    }
+
+    /**
+     * Forgets the taps that aren't shown yet, the recorded latencies are kept.
+     */
+    public void clear() {
+        queued = false;
+        ticked = 0;
+    }
+
+    public Histogram getToTick() {
+        return toTick;
+    }
+
+    public Histogram getToFrame() {
+        return toFrame;
+    }
+
+    /**
+     * Writes the percentiles in milliseconds, followed by the buckets of both histograms in nanoseconds.
+     */
+    public void dump(Appendable out) throws IOException {
+        out.append(String.format(Locale.US, "%-12s %8s %9s %9s %9s %9s%n", "latency", "count", "p50", "p95", "p99", "max"));
+        dump(out, "tapToTick", toTick);
+        dump(out, "tapToFrame", toFrame);
+        out.append("\n# tapToTick\n");
+        toTick.dumpBuckets(out);
+        out.append("\n# tapToFrame\n");
+        toFrame.dumpBuckets(out);
+    }
+
+    private static void dump(Appendable out, String name, Histogram h) throws IOException {
+        out.append(String.format(Locale.US, "%-12s %8d %9.2f %9.2f %9.2f %9.2f%n", name, h.getCount(),
+            h.getValueAtPercentile(50) / 1e6f, h.getValueAtPercentile(95) / 1e6f,
+            h.getValueAtPercentile(99) / 1e6f, h.getMax() / 1e6f));
+    }
+}
@@ -0,0 +1,543 @@
+/**
+ * The simulated game world
+ * <p>
+ * Holds the player, the obstacles and the power-ups and advances them
+ * one tick at a time with {@link #step(int)}. Uses no Android types,
+ * the app reacts to what happens via a {@link Listener}.
+ * <p>
+ * Spiders, logs and power-ups live in an {@link EntityStore},
+ * the movement, the animation and the collisions are systems running over its arrays.
+ */
+
+package edu.ucsd.flappycow.core;
+
+public class World {
+
+    /** No input in this tick */
+    public static final int INPUT_NONE = 0;
+
+    /** The player tapped the screen */
+    public static final int INPUT_TAP = 1;
+
+    /** The gap between spider and log is smaller by the way the obstacles move in this time */
+    private static final float GAP_SPEED_SECONDS = 0.05f;
+
+    /** How long a frame of the coin is shown */
+    private static final short COIN_FRAME_MILLIS = 50;
+
+    /** Points needed before a toast can show up */
+    public static final int POINTS_TO_TOAST = 42;
+
+    /** Points needed for the medals */
+    public static final int BRONZE_POINTS = 10;
+    public static final int SILVER_POINTS = 50;
+    public static final int GOLD_POINTS = 100;
+
+    /** Achievements that can be earned in a world, see {@link #getAchievements()} */
+    public static final int ACHIEVEMENT_TOASTIFICATION = 1;
+    public static final int ACHIEVEMENT_BRONZE = 1 << 1;
+    public static final int ACHIEVEMENT_SILVER = 1 << 2;
+    public static final int ACHIEVEMENT_GOLD = 1 << 3;
+
+    /**
+     * Gets told what happens in the world, e.g. to play sounds.
+     * All methods are called from inside {@link #step(int)}.
+     */
+    public interface Listener {
+        /** The player flapped up */
+        void onTap();
+
+        /** An obstacle was passed, the points have already been increased */
+        void onPass();
+
+        /** A coin was collected */
+        void onCoin();
+
+        /** A toast was eaten, the player is nyan cat now */
+        void onToast();
+
+        /** A virus was caught, the points have already been decreased */
+        void onVirus();
+
+        /** The player crashed into an obstacle */
+        void onCrash();
+    }
+
+    private static final Listener NO_LISTENER = new Listener() {
+        @Override
+        public void onTap() {
+        }
+
+        @Override
+        public void onPass() {
+        }
+
+        @Override
+        public void onCoin() {
+        }
+
+        @Override
+        public void onToast() {
+        }
+
+        @Override
+        public void onVirus() {
+        }
+
+        @Override
+        public void onCrash() {
+        }
+    };
+
+    private final WorldConfig config;
+    private final long seed;
+    private final Rng random;
+    private Listener listener = NO_LISTENER;
+
+    /** Times the phases of a tick, if set */
+    private Profiler profiler;
+
+    /** Pixel exact collisions, if the app provides masks */
+    private CollisionMasks masks;
+
+    private final Player player;
+
+    /** Spiders, logs and power-ups, the arrays are reused, so a tick doesn't allocate */
+    private final EntityStore entities = new EntityStore(8);
+
+    /** How many obstacles can be in the world at the same time */
+    private int maxObstacles = 1;
+
+    /** Passed obstacles */
+    private int points;
+
+    /** Most points there were at any time, a virus can take some away again */
+    private int bestPoints;
+
+    /** Coins collected in this world */
+    private int coins;
+
+    private boolean gameOver;
+
+    public World(WorldConfig config) {
+        this(config, System.nanoTime());
+    }
+
+    /**
+     * A world that creates the same obstacles and power-ups for the same seed and inputs.
+     */
+    public World(WorldConfig config, long seed) {
+        this.config = config;
+        this.seed = seed;
+        this.random = new Rng(seed);
+        this.player = new Player(config);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener != null ? listener : NO_LISTENER;
+    }
+
+    /**
+     * Records the duration of every phase of a tick from now on, null stops it.
+     */
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Uses the masks for the collisions from now on.
+     * Without masks the rectangles of the bodies are used.
+     */
+    public void setCollisionMasks(CollisionMasks masks) {
+        this.masks = masks;
+        player.mask = masks != null ? masks.getPlayer(player) : null;
+        for (int i = 0; i < entities.size; i++) {
+            entities.mask[i] = masks != null ? masks.get(entities.kind[i]) : null;
+        }
+    }
+
+    /**
+     * Takes over the state of the other world, so both go on the same way.
+     * Doesn't allocate once this world held as many entities as the other,
+     * so worlds can be reused for a search.
+     * The listener and the profiler stay, the seed is the one this world was created with.
+     */
+    public void copyFrom(World other) {
+        if (other.config.width != config.width || other.config.height != config.height) {
+            throw new IllegalArgumentException("The worlds have different sizes");
+        }
+        random.copyFrom(other.random);
+        masks = other.masks;
+        player.copyFrom(other.player);
+        entities.copyFrom(other.entities);
+        maxObstacles = other.maxObstacles;
+        points = other.points;
+        bestPoints = other.bestPoints;
+        coins = other.coins;
+        gameOver = other.gameOver;
+    }
+
+    /**
+     * Lets more obstacles be in the world at the same time.
+     * They are spread evenly over the width of the screen.
+     * The game has only one.
+     */
+    public void setMaxObstacles(int maxObstacles) {
+        if (maxObstacles < 1) {
+            throw new IllegalArgumentException("At least one obstacle is needed");
+        }
+        this.maxObstacles = maxObstacles;
+    }
+
+    /**
+     * Advances the world by one tick, the tick length of the config.
+     *
+     * @param input INPUT_NONE or INPUT_TAP
+     */
+    public void step(int input) {
+        if (gameOver) {
+            return;
+        }
+        if ((input & INPUT_TAP) != 0 && !player.isDead) {
+            player.onTap();
+            listener.onTap();
+        }
+
+        long time = profiler != null ? System.nanoTime() : 0;
+        checkPasses();
+        time = lap(Profiler.CHECK_PASSES, time);
+        checkOutOfRange();
+        time = lap(Profiler.CHECK_OUT_OF_RANGE, time);
+        checkCollision();
+        time = lap(Profiler.CHECK_COLLISION, time);
+        if (gameOver) {
+            return;
+        }
+        createObstacle();
+        time = lap(Profiler.CREATE_OBSTACLE, time);
+        move();
+        lap(Profiler.MOVE, time);
+    }
+
+    private long lap(int phase, long start) {
+        return profiler != null ? profiler.lap(phase, start) : 0;
+    }
+
+    /**
+     * Checks whether an obstacle is passed.
+     * The spider counts for the whole obstacle, the log is at the same x coordinate.
+     */
+    private void checkPasses() {
+        int width = Math.max(config.spiderWidth, config.logWidth);
+        for (int i = 0; i < entities.size; i++) {
+            if (entities.kind[i] == EntityStore.SPIDER && !entities.passed[i]
+                && entities.x[i] + width < player.x) {
+                entities.passed[i] = true;
+                points++;
+                bestPoints = Math.max(bestPoints, points);
+                listener.onPass();
+                createPowerUp();
+            }
+        }
+    }
+
+    /**
+     * Creates a power-up with a certain chance
+     */
+    private void createPowerUp() {
+        // Toast
+        if (points >= POINTS_TO_TOAST && !player.isNyanCat) {
+            if (points == POINTS_TO_TOAST) {    // First time 100 % chance
+                addPowerUp(EntityStore.TOAST);
+            } else if (random.nextDouble() * 100 < config.difficulty.toastChance) {    // 33% chance
+                addPowerUp(EntityStore.TOAST);
+            }
+        }
+
+        if ((countPowerUps() < 1) && (random.nextDouble() * 100 < config.difficulty.coinChance)) {
+            // If no powerUp is present and 20% chance
+            addPowerUp(EntityStore.COIN);
+        }
+
+        if ((countPowerUps() < 1) && (random.nextDouble() * 100 < config.difficulty.virusChance)) {
+            // If no powerUp is present and 10% chance (if also no coin)
+            addPowerUp(EntityStore.VIRUS);
+        }
+    }
+
+    /**
+     * Puts a power-up at the top of the screen, at x = 4/5 of the screen.
+     * It falls down slowly, depending on the current speed.
+     */
+    private void addPowerUp(byte kind) {
+        float speedX = getSpeedX();
+        int i;
+        switch (kind) {
+            case EntityStore.TOAST:
+                i = add(kind, config.width * 4 / 5, 0, config.toastWidth, config.toastHeight);
+                break;
+            case EntityStore.COIN:
+                i = add(kind, config.width * 4 / 5, 0, config.coinWidth, config.coinHeight);
+                entities.colNr[i] = 12;
+                entities.frameMillis[i] = COIN_FRAME_MILLIS;
+                break;
+            default:
+                i = add(kind, config.width * 4 / 5, 0, config.virusWidth, config.virusHeight);
+                break;
+        }
+        entities.speedX[i] = -speedX;
+        entities.speedY[i] = (float) (speedX * (random.nextDouble() + 0.5));
+    }
+
+    private int add(byte kind, float x, float y, int width, int height) {
+        int i = entities.add(kind, x, y, width, height);
+        entities.mask[i] = masks != null ? masks.get(kind) : null;
+        return i;
+    }
+
+    private int countPowerUps() {
+        int count = 0;
+        for (int i = 0; i < entities.size; i++) {
+            if (EntityStore.isPowerUp(entities.kind[i]) && !entities.removed[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether the obstacles or powerUps are out of range and deletes them
+     */
+    private void checkOutOfRange() {
+        for (int i = 0; i < entities.size; i++) {
+            if (entities.x[i] + entities.width[i] < 0) {
+                entities.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Checks collisions and performs the action.
+     * Only the entities that overlap the player horizontally are tested.
+     */
+    private void checkCollision() {
+        entities.compact();
+        entities.sort();
+        int first = CollisionSystem.firstCandidate(entities, player);
+        float right = player.x + player.width;
+        int tolerance = config.collisionTolerance;
+
+        for (int i = first; i < entities.size && entities.x[i] < right; i++) {
+            if (!EntityStore.isPowerUp(entities.kind[i]) && CollisionSystem.collides(entities, i, player, tolerance)) {
+                // Spider or log
+                listener.onCrash();
+                gameOver = true;
+                return;
+            }
+        }
+        for (int i = first; i < entities.size && entities.x[i] < right; i++) {
+            if (EntityStore.isPowerUp(entities.kind[i]) && CollisionSystem.collides(entities, i, player, tolerance)) {
+                entities.remove(i);
+                onCollision(entities.kind[i]);
+            }
+        }
+        entities.compact();
+        if (player.isTouchingEdge()) {
+            gameOver = true;
+        }
+    }
+
+    /**
+     * What should happen, when the player eats the power-up?
+     */
+    private void onCollision(byte kind) {
+        switch (kind) {
+            case EntityStore.TOAST:
+                player.changeToNyanCat();
+                if (masks != null) {
+                    player.mask = masks.nyanCat;
+                }
+                listener.onToast();
+                break;
+            case EntityStore.COIN:
+                coins++;
+                listener.onCoin();
+                break;
+            case EntityStore.VIRUS:
+                points--;
+                listener.onVirus();
+                break;
+        }
+    }
+
+    /**
+     * if no obstacle is present a new one is created.
+     * With more than one obstacle, when the last one is far enough from the right edge.
+     */
+    private void createObstacle() {
+        int count = 0;
+        float rightmostX = -Float.MAX_VALUE;
+        for (int i = 0; i < entities.size; i++) {
+            if (entities.kind[i] == EntityStore.SPIDER) {
+                count++;
+                rightmostX = Math.max(rightmostX, entities.x[i]);
+            }
+        }
+        if (count >= maxObstacles) {
+            return;
+        }
+        if (count == 0 || rightmostX <= config.width - config.width / maxObstacles) {
+            initObstacle();
+        }
+    }
+
+    /**
+     * Puts a spider and a log at the given x coordinate into the world.
+     *
+     * @param spiderY top of the spider
+     * @param logY    top of the log
+     */
+    void addObstacle(float x, float spiderY, float logY) {
+        add(EntityStore.SPIDER, x, spiderY, config.spiderWidth, config.spiderHeight);
+        add(EntityStore.LOG, x, logY, config.logWidth, config.logHeight);
+    }
+
+    /**
+     * Places the spider and the log at the right of the screen.
+     * With a certain gap between them.
+     * The vertical position is in a certain area random.
+     */
+    private void initObstacle() {
+        int height = config.height;
+        int gab = (int) (height / config.difficulty.gapDivider - getSpeedX() * GAP_SPEED_SECONDS);
+        if (gab < height / config.difficulty.minGapDivider) {
+            gab = height / config.difficulty.minGapDivider;
+        }
+        int random = (int) (this.random.nextDouble() * height * 2 / 5);
+        int y1 = (height / 10) + random - config.spiderHeight;
+        int y2 = (height / 10) + random + gab;
+
+        addObstacle(config.width, y1, y2);
+    }
+
+    /**
+     * Update movements
+     */
+    private void move() {
+        MovementSystem.storePositions(entities);
+        MovementSystem.setObstacleSpeed(entities, -getSpeedX());
+        AnimationSystem.update(entities, config.tickMillis);
+        MovementSystem.move(entities, config.tickSeconds);
+
+        player.storePosition();
+        player.move();
+    }
+
+    /**
+     * The middle between the next spider and log the player hasn't passed yet,
+     * the middle of the screen, if there are none.
+     */
+    public float getGapCenter() {
+        int spider = -1;
+        int log = -1;
+        for (int i = 0; i < entities.size; i++) {
+            if (entities.removed[i] || entities.x[i] + entities.width[i] < player.x) {
+                continue;
+            }
+            if (entities.kind[i] == EntityStore.SPIDER && (spider < 0 || entities.x[i] < entities.x[spider])) {
+                spider = i;
+            } else if (entities.kind[i] == EntityStore.LOG && (log < 0 || entities.x[i] < entities.x[log])) {
+                log = i;
+            }
+        }
+        if (spider < 0 || log < 0) {
+            return config.height / 2;
+        }
+        return (entities.y[spider] + entities.height[spider] + entities.y[log]) / 2;
+    }
+
+    /**
+     * Sets the player into startposition
+     * and removes obstacles and power-ups.
+     */
+    public void revive() {
+        player.y = config.height / 2 - player.width / 2;
+        player.x = config.width / 6;
+        player.storePosition();
+        player.revive();
+        entities.clear();
+        gameOver = false;
+    }
+
+    /**
+     * return the speed of the obstacles/cow, in pixels per second
+     */
+    public float getSpeedX() {
+        Difficulty difficulty = config.difficulty;
+
+        // 320 @ 720x1280 px
+        float speedDefault = config.speed;
+
+        // 24 every 4 points @ 720x1280 px
+        float speedIncrease = config.speedIncrease * (points / difficulty.pointsPerSpeedIncrease);
+
+        return Math.min(speedDefault + speedIncrease, difficulty.maxSpeedFactor * speedDefault);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public WorldConfig getConfig() {
+        return config;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * The spiders, logs and power-ups in the world
+     */
+    public EntityStore getEntities() {
+        return entities;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public int getCoins() {
+        return coins;
+    }
+
+    public int getBestPoints() {
+        return bestPoints;
+    }
+
+    /**
+     * The achievements earned in this world, ACHIEVEMENT_* flags.
+     * The medals count, once the points were reached.
+     */
+    public int getAchievements() {
+        int achievements = player.isNyanCat ? ACHIEVEMENT_TOASTIFICATION : 0;
+        if (bestPoints >= BRONZE_POINTS) {
+            achievements |= ACHIEVEMENT_BRONZE;
+        }
+        if (bestPoints >= SILVER_POINTS) {
+            achievements |= ACHIEVEMENT_SILVER;
+        }
+        if (bestPoints >= GOLD_POINTS) {
+            achievements |= ACHIEVEMENT_GOLD;
+        }
+        return achievements;
+    }
+
+    /**
+     * Whether the player crashed or touched an edge.
+     * The world doesn't step anymore until it's revived.
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * Screen dependent dimensions of the game world
+ * <p>
+ * The sprite sizes are derived the same way the app scales its bitmaps,
+ * so the simulation matches what is drawn without loading any bitmap.
+ * The speeds of the difficulty are turned into pixels per second once, for the length of a tick.
+ */
+
+package edu.ucsd.flappycow.core;
+
+public class WorldConfig {
+
+    /** Height of the ground relative to the height of the screen */
+    public static final float GROUND_HEIGHT = (1f * /*45*/ 35) / 720;
+
+    /** Length of a tick in seconds, the game ticks 20 times per second */
+    public static final float DEFAULT_TICK_SECONDS = 0.05f;
+
+    /** Density the bitmaps are decoded with, before they are scaled */
+    private static final int DEFAULT_DENSITY = 1024;
+
+    // Pixel sizes of the sprite sheets in res/drawable-nodpi
+    private static final int COW_SHEET_WIDTH = 1024, COW_SHEET_HEIGHT = 384;
+    private static final int NYAN_CAT_SHEET_WIDTH = 128, NYAN_CAT_SHEET_HEIGHT = 192;
+    private static final int SPIDER_WIDTH = 128, SPIDER_HEIGHT = 1024;
+    private static final int LOG_WIDTH = 128, LOG_HEIGHT = 1024;
+    private static final int COIN_SHEET_WIDTH = 768, COIN_SHEET_HEIGHT = 64;
+    private static final int TOAST_WIDTH = 64, TOAST_HEIGHT = 64;
+    private static final int VIRUS_WIDTH = 64, VIRUS_HEIGHT = 64;
+
+    /** Size of the screen in pixels */
+    final int width, height;
+
+    /** Factor the bitmaps get scaled with. 1.2 @ 720x1280 px */
+    final float scaleFactor;
+
+    /** Speeds, gaps and chances */
+    final Difficulty difficulty;
+
+    /** Time a tick simulates */
+    final float tickSeconds;
+    final float tickMillis;
+
+    /** Speed of the obstacles and its increase, in pixels per second */
+    final float speed, speedIncrease;
+
+    /** The physics of the player, in pixels and seconds */
+    final float gravity, tapSpeed, tapJump, maxFallSpeed;
+
+    /**
+     * While rising, the speed decays towards riseSpeed: riseFactor of the difference is left after a tick,
+     * and the player moves riseSpeed * tickSeconds + riseSeconds times the difference.
+     */
+    final float riseSpeed, riseFactor, riseSeconds;
+
+    /** Size of one frame of the sprites */
+    final int cowWidth, cowHeight;
+    final int nyanCatWidth, nyanCatHeight;
+    final int spiderWidth, spiderHeight;
+    final int logWidth, logHeight;
+    final int coinWidth, coinHeight;
+    final int toastWidth, toastHeight;
+    final int virusWidth, virusHeight;
+
+    /**
+     * A value that will be tolerated when touching a sprite.
+     * Because the images have some whitespace to the edge.
+     * Only used, when there are no collision masks.
+     */
+    final int collisionTolerance;
+
+    /**
+     * Uses the scale factor of the app for the given screen size.
+     */
+    public WorldConfig(int width, int height) {
+        this(width, height, height / 1066f);
+    }
+
+    public WorldConfig(int width, int height, float scaleFactor) {
+        this(width, height, scaleFactor, new Difficulty());
+    }
+
+    /**
+     * A world that is easier or harder than the game.
+     */
+    public WorldConfig(int width, int height, float scaleFactor, Difficulty difficulty) {
+        this(width, height, scaleFactor, difficulty, DEFAULT_TICK_SECONDS);
+    }
+
+    /**
+     * A world that ticks at another rate, it plays the same.
+     */
+    public WorldConfig(int width, int height, float scaleFactor, Difficulty difficulty, float tickSeconds) {
+        if (!(tickSeconds > 0)) {
+            throw new IllegalArgumentException("A tick has to take some time: " + tickSeconds);
+        }
+        this.width = width;
+        this.height = height;
+        this.scaleFactor = scaleFactor;
+        this.difficulty = new Difficulty(difficulty);
+        this.tickSeconds = tickSeconds;
+        this.tickMillis = tickSeconds * 1000;
+
+        speed = width * difficulty.speed;
+        speedIncrease = width * difficulty.speedIncrease;
+        gravity = height * difficulty.gravity;
+        tapSpeed = -height * difficulty.tapSpeed;
+        tapJump = -height * difficulty.tapJump;
+        maxFallSpeed = height * difficulty.maxFallSpeed;
+        riseSpeed = height * difficulty.riseSpeed;
+        // StrictMath gives the same bits on every VM, so a replay plays the same off the device
+        riseFactor = (float) StrictMath.exp(-difficulty.riseDecay * tickSeconds);
+        riseSeconds = (1 - riseFactor) / difficulty.riseDecay;
+
+        cowWidth = scale(COW_SHEET_WIDTH) / 8;      // The image has 8 frames in a row
+        cowHeight = scale(COW_SHEET_HEIGHT) / 4;    // and 4 in a column
+        nyanCatWidth = scale(NYAN_CAT_SHEET_WIDTH);
+        nyanCatHeight = scale(NYAN_CAT_SHEET_HEIGHT) / 2;
+        spiderWidth = scale(SPIDER_WIDTH);
+        spiderHeight = scale(SPIDER_HEIGHT);
+        logWidth = scale(LOG_WIDTH);
+        logHeight = scale(LOG_HEIGHT);
+        coinWidth = scale(COIN_SHEET_WIDTH) / 12;
+        coinHeight = scale(COIN_SHEET_HEIGHT);
+        toastWidth = scale(TOAST_WIDTH);
+        toastHeight = scale(TOAST_HEIGHT);
+        virusWidth = scale(VIRUS_WIDTH);
+        virusHeight = scale(VIRUS_HEIGHT);
+
+        // 25 @ 720x1280 px
+        collisionTolerance = height / 50;
+    }
+
+    /**
+     * Scales a bitmap dimension like BitmapFactory does for the app.
+     */
+    private int scale(int pixels) {
+        int targetDensity = (int) (scaleFactor * DEFAULT_DENSITY);
+        return (int) (pixels * ((float) targetDensity / DEFAULT_DENSITY) + 0.5f);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public float getScaleFactor() {
+        return scaleFactor;
+    }
+
+    public float getTickSeconds() {
+        return tickSeconds;
+    }
+
+    /**
+     * A copy, changing it doesn't change this config
+     */
+    public Difficulty getDifficulty() {
+        return new Difficulty(difficulty);
+    }
+}
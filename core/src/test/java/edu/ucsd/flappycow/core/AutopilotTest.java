@@ -0,0 +1,25 @@
+package edu.ucsd.flappycow.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AutopilotTest {
+    @Test
+    public void testAutopilotPassesObstacles() {
+        // GIVEN
+        WorldConfig config = new WorldConfig(720, 1280);
+        World world = new World(config, 42);
+        Autopilot autopilot = new Autopilot(config, 8, 20, Long.MAX_VALUE);
+
+        // WHEN
+        for (int tick = 0; tick < 1000 && !world.isGameOver(); tick++) {
+            world.step(autopilot.decide(world));
+        }
+
+        // THEN
+        assertFalse(world.isGameOver());
+        assertTrue(world.getPoints() >= 10);
+    }
+}
@@ -0,0 +1,52 @@
+package edu.ucsd.flappycow.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CollisionMaskTest {
+    private static final int SOLID = 0xFF000000;
+
+    /**
+     * A sheet of two 100x10 frames, the first one is solid in the right half,
+     * the second one only in the last column.
+     */
+    private static CollisionMask createMask() {
+        int[] pixels = new int[200 * 10];
+        for (int y = 0; y < 10; y++) {
+            for (int x = 50; x < 100; x++) {
+                pixels[y * 200 + x] = SOLID;
+            }
+            pixels[y * 200 + 199] = SOLID;
+        }
+        return CollisionMask.fromArgb(pixels, 200, 100, 10, 2, 1);
+    }
+
+    @Test
+    public void testSolidPixelsOverlap() {
+        // GIVEN
+        CollisionMask mask = createMask();
+
+        // WHEN
+        boolean overlaps = mask.overlaps(0, 0, 0, mask, 0, 20, 5);
+
+        // THEN
+        assertTrue(mask.isSet(0, 99, 9));
+        assertTrue(overlaps);
+    }
+
+    @Test
+    public void testTransparentPixelsDontOverlap() {
+        // GIVEN
+        CollisionMask mask = createMask();
+
+        // WHEN the solid half of the first frame is on the empty half of the second
+        boolean overlaps = mask.overlaps(0, 0, 0, mask, 1, 30, 0);
+
+        // THEN
+        assertFalse(mask.isSet(1, 98, 0));
+        assertFalse(overlaps);
+        assertTrue(mask.overlaps(0, 0, 0, mask, 1, -40, 0));
+    }
+}
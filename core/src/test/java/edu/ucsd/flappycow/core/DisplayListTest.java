@@ -0,0 +1,70 @@
+package edu.ucsd.flappycow.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DisplayListTest {
+
+    private static void sprite(Renderer renderer, int texture, int x, int layer) {
+        renderer.draw(texture, 0, 0, 10, 10, x, 0, x + 10, 10, layer);
+    }
+
+    /** Alternates between two textures on the same layer, plus a background below them */
+    private static void record(DisplayList frame, int x) {
+        frame.clear();
+        sprite(frame, 0, x, Renderer.LAYER_OBSTACLES);
+        sprite(frame, 1, x + 20, Renderer.LAYER_OBSTACLES);
+        sprite(frame, 0, x + 40, Renderer.LAYER_OBSTACLES);
+        sprite(frame, 1, x + 60, Renderer.LAYER_OBSTACLES);
+        sprite(frame, 2, 0, Renderer.LAYER_BACKGROUND);
+    }
+
+    @Test
+    public void testSortBatchesByLayerAndTexture() {
+        // GIVEN
+        DisplayList frame = new DisplayList(1);
+        record(frame, 0);
+        assertEquals(5, frame.countBatches());
+
+        // WHEN
+        frame.sort();
+
+        // THEN
+        assertEquals(5, frame.size());
+        assertEquals(3, frame.countBatches());
+        assertEquals(Renderer.LAYER_BACKGROUND, frame.getLayer(0));
+        DisplayList played = new DisplayList();
+        frame.playTo(played);
+        assertEquals(2, played.getTexture(0));
+        assertEquals(0, played.getTexture(1));
+        assertEquals(0, played.getTexture(2));
+        assertEquals(1, played.getTexture(3));
+        assertEquals(1, played.getTexture(4));
+    }
+
+    @Test
+    public void testIdenticalFramesLookAlike() {
+        // GIVEN
+        DisplayList last = new DisplayList();
+        DisplayList frame = new DisplayList();
+        record(last, 5);
+        last.sort();
+
+        // WHEN
+        record(frame, 5);
+        frame.sort();
+
+        // THEN
+        assertTrue(frame.looksLike(last));
+        record(frame, 6);
+        frame.sort();
+        assertFalse(frame.looksLike(last));
+        record(frame, 5);
+        frame.textureChanged(1);
+        frame.sort();
+        assertFalse(frame.looksLike(last));
+    }
+}
@@ -0,0 +1,29 @@
+package edu.ucsd.flappycow.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class EntityStoreTest {
+    @Test
+    public void testSortAndCompactKeepEntitiesTogether() {
+        // GIVEN
+        EntityStore entities = new EntityStore(1);
+        entities.add(EntityStore.LOG, 30, 3, 10, 10);
+        entities.add(EntityStore.COIN, 10, 1, 10, 10);
+        entities.add(EntityStore.SPIDER, 20, 2, 10, 10);
+
+        // WHEN
+        entities.sort();
+        entities.remove(1);
+        entities.compact();
+
+        // THEN
+        assertEquals(2, entities.size());
+        assertEquals(EntityStore.COIN, entities.getKind(0));
+        assertEquals(1, entities.getY(0), 0);
+        assertEquals(EntityStore.LOG, entities.getKind(1));
+        assertEquals(3, entities.getY(1), 0);
+        assertEquals(1, entities.firstAtOrRightOf(15));
+    }
+}
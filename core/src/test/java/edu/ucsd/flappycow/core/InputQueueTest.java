@@ -0,0 +1,72 @@
+package edu.ucsd.flappycow.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InputQueueTest {
+
+    @Test
+    public void testDrainKeepsTheOrderAndDropsWhenFull() {
+        // GIVEN
+        InputQueue queue = new InputQueue(3);
+        assertEquals(4, queue.capacity());
+
+        // WHEN
+        for (int i = 0; i < queue.capacity(); i++) {
+            assertTrue(queue.offer(InputQueue.DOWN, i, -i, 100L * i));
+        }
+        boolean dropped = !queue.offer(InputQueue.SECOND_DOWN, 9, 9, 999L);
+        List<Long> times = new ArrayList<>();
+        int count = queue.drain((kind, x, y, timeNanos) -> {
+            assertEquals(InputQueue.DOWN, kind);
+            assertEquals(-x, y);
+            times.add(timeNanos);
+        });
+
+        // THEN
+        assertTrue(dropped);
+        assertEquals(4, count);
+        assertEquals(List.of(0L, 100L, 200L, 300L), times);
+        assertEquals(0, queue.drain((kind, x, y, timeNanos) -> times.add(timeNanos)));
+        assertTrue(queue.offer(InputQueue.SECOND_DOWN, 0, 0, 400L));
+        queue.clear();
+        assertEquals(0, queue.drain((kind, x, y, timeNanos) -> times.add(timeNanos)));
+    }
+
+    @Test
+    public void testTwoThreadsLoseNothing() throws InterruptedException {
+        // GIVEN
+        final int events = 1_000_000;
+        InputQueue queue = new InputQueue(64);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < events; i++) {
+                while (!queue.offer(InputQueue.DOWN, i, i + 1, i)) {
+                    Thread.yield();
+                }
+            }
+        });
+
+        // WHEN
+        producer.start();
+        long[] next = new long[1];
+        boolean[] ordered = {true};
+        while (next[0] < events) {
+            queue.drain((kind, x, y, timeNanos) -> {
+                ordered[0] &= x == next[0] && y == x + 1 && timeNanos == x;
+                next[0]++;
+            });
+        }
+        producer.join();
+
+        // THEN
+        assertTrue(ordered[0]);
+        assertEquals(events, next[0]);
+        assertFalse(queue.drain((kind, x, y, timeNanos) -> next[0]++) > 0);
+    }
+}
@@ -0,0 +1,95 @@
+package edu.ucsd.flappycow.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReplayTest {
+    @Test
+    public void testReplayRunsTheSameWorld() throws IOException {
+        // GIVEN
+        World world = new World(new WorldConfig(720, 1280), 42);
+        ReplayRecorder recorder = new ReplayRecorder(world, null);
+        Rng taps = new Rng(7);
+        for (int run = 0; run < 3; run++) {
+            while (!world.isGameOver()) {
+                int input = world.getPlayer().getY() > 640 && taps.nextDouble() < 0.5 ? World.INPUT_TAP : World.INPUT_NONE;
+                recorder.onStep(input);
+                world.step(input);
+            }
+            Player player = world.getPlayer();
+            player.dead();
+            do {
+                player.move();
+            } while (!player.isTouchingGround());
+            world.revive();
+            recorder.onRevive();
+        }
+        recorder.onStep(World.INPUT_NONE);
+        world.step(World.INPUT_NONE);
+
+        // WHEN
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recorder.getReplay().write(out);
+        Replay replay = Replay.read(new ByteArrayInputStream(out.toByteArray()));
+        World replayed = replay.play(null);
+
+        // THEN
+        assertTrue(out.size() < 1000);
+        assertEquals(world.getPoints(), replayed.getPoints());
+        assertEquals(world.getPlayer().getY(), replayed.getPlayer().getY(), 0);
+        assertEquals(world.getEntities().size(), replayed.getEntities().size());
+        assertTrue(replay.verify(null));
+    }
+
+    /** A one-frame mask of the size, solid or without any solid pixel */
+    private static CollisionMask mask(int width, int height, boolean solid) {
+        CollisionMask mask = new CollisionMask(width, height, 1, 1);
+        for (int y = 0; solid && y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                mask.set(0, x, y);
+            }
+        }
+        return mask;
+    }
+
+    /** Masks that fit the sprites of the config */
+    private static CollisionMasks masks(WorldConfig config, boolean solid) {
+        return new CollisionMasks(mask(config.cowWidth, config.cowHeight, solid),
+            mask(config.nyanCatWidth, config.nyanCatHeight, solid),
+            mask(config.spiderWidth, config.spiderHeight, solid),
+            mask(config.logWidth, config.logHeight, solid),
+            mask(config.toastWidth, config.toastHeight, solid),
+            mask(config.coinWidth, config.coinHeight, solid),
+            mask(config.virusWidth, config.virusHeight, solid));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReplayOnlyPlaysWithTheMasksItWasRecordedWith() throws IOException {
+        // GIVEN
+        WorldConfig config = new WorldConfig(720, 1280);
+        CollisionMasks solid = masks(config, true);
+        World world = new World(config, 42);
+        world.setCollisionMasks(solid);
+        ReplayRecorder recorder = new ReplayRecorder(world, solid);
+        recorder.onStep(World.INPUT_TAP);
+        world.step(World.INPUT_TAP);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recorder.getReplay().write(out);
+        Replay replay = Replay.read(new ByteArrayInputStream(out.toByteArray()));
+
+        // THEN
+        assertTrue(replay.matches(masks(config, true)));
+        assertFalse(replay.matches(masks(config, false)));
+        assertFalse(replay.matches(masks(new WorldConfig(1080, 1920), true)));
+
+        // WHEN
+        replay.play(masks(config, false));
+    }
+}
@@ -0,0 +1,152 @@
+package edu.ucsd.flappycow.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+public class RunHistoryTest {
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    private static final long START = 1_700_000_000_000L;
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** Some indexed runs and some in the tail, spread over a few days */
+    private static List<Run> addRuns(RunHistory history, int count) throws IOException {
+        Rng rng = new Rng(42);
+        List<Run> runs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Run run = new Run(START + i * (DAY / 500), 1000 + i, (int) (rng.nextDouble() * 200), (int) (rng.nextDouble() * 20), i % 3, i % 2);
+            history.add(run);
+            runs.add(run);
+        }
+        return runs;
+    }
+
+    @Test
+    public void testQueriesMatchAScan() throws IOException {
+        // GIVEN
+        RunHistory history = new RunHistory(folder.getRoot(), UTC);
+
+        // WHEN
+        List<Run> runs = addRuns(history, 2 * RunHistory.TAIL_LIMIT + 100);
+
+        // THEN
+        List<Run> sorted = new ArrayList<>(runs);
+        sorted.sort(Comparator.comparingInt(Run::getPoints).reversed());
+        List<Run> top = history.getTop(50);
+        assertEquals(50, top.size());
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(sorted.get(i).getPoints(), top.get(i).getPoints());
+        }
+        for (int points : new int[] {0, 1, 100, 199, 500}) {
+            int below = 0;
+            int above = 0;
+            for (Run run : runs) {
+                below += run.getPoints() < points ? 1 : 0;
+                above += run.getPoints() > points ? 1 : 0;
+            }
+            assertEquals(100f * below / runs.size(), history.getPercentile(points), 1e-4);
+            assertEquals(above + 1, history.getRank(points));
+        }
+        for (long time = START; time < START + 6 * DAY; time += DAY) {
+            int count = 0;
+            int best = 0;
+            int coins = 0;
+            for (Run run : runs) {
+                if (Math.floorDiv(run.getTime(), DAY) == Math.floorDiv(time, DAY)) {
+                    count++;
+                    best = Math.max(best, run.getPoints());
+                    coins += run.getCoins();
+                }
+            }
+            assertEquals(count, history.getRunsOn(time));
+            assertEquals(best, history.getBestOn(time));
+            assertEquals(coins, history.getCoinsOn(time));
+        }
+        history.close();
+    }
+
+    @Test
+    public void testReopenDropsACutOffRecord() throws IOException {
+        // GIVEN
+        RunHistory history = new RunHistory(folder.getRoot(), UTC);
+        List<Run> runs = addRuns(history, RunHistory.TAIL_LIMIT + 10);
+        int best = history.getTop(1).get(0).getPoints();
+        history.close();
+        try (RandomAccessFile log = new RandomAccessFile(new File(folder.getRoot(), RunHistory.LOG_FILE), "rw")) {
+            log.setLength(log.length() + 7);
+        }
+
+        // WHEN
+        RunHistory reopened = new RunHistory(folder.getRoot(), UTC);
+
+        // THEN
+        assertEquals(runs.size(), reopened.size());
+        Run last = reopened.get(runs.size() - 1);
+        assertEquals(runs.get(runs.size() - 1).getTime(), last.getTime());
+        assertEquals(runs.get(runs.size() - 1).getPoints(), last.getPoints());
+        assertEquals(runs.get(runs.size() - 1).getRevives(), last.getRevives());
+        assertEquals(best, reopened.getTop(1).get(0).getPoints());
+        reopened.close();
+    }
+
+    @Test
+    public void testCompactKeepsTheBestAndTheRecentRuns() throws IOException {
+        // GIVEN
+        RunHistory history = new RunHistory(folder.getRoot(), UTC);
+        List<Run> runs = addRuns(history, 3000);
+        List<Run> top = history.getTop(10);
+        long keepSince = runs.get(2900).getTime();
+
+        // WHEN
+        history.compact(10, keepSince);
+
+        // THEN
+        Set<Long> topTimes = new HashSet<>();
+        for (Run run : top) {
+            topTimes.add(run.getTime());
+        }
+        int kept = 0;
+        for (int i = 0; i < runs.size(); i++) {
+            if (i >= 2900 || topTimes.contains(runs.get(i).getTime())) {
+                kept++;
+            }
+        }
+        assertEquals(kept, history.size());
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(top.get(i).getTime(), history.getTop(10).get(i).getTime());
+        }
+        history.close();
+    }
+
+    @Test
+    public void testDaysStartAtMidnightWithDaylightSavingTime() throws IOException {
+        // GIVEN
+        // 00:30 on July 2 in Berlin, in summer time
+        long time = Instant.parse("2023-07-01T22:30:00Z").toEpochMilli();
+        RunHistory history = new RunHistory(folder.getRoot(), TimeZone.getTimeZone("Europe/Berlin"));
+
+        // WHEN
+        history.add(new Run(time, 1000, 5, 1, 0, Run.COW));
+
+        // THEN
+        assertEquals(1, history.getRunsOn(Instant.parse("2023-07-02T12:00:00Z").toEpochMilli()));
+        assertEquals(0, history.getRunsOn(Instant.parse("2023-07-01T12:00:00Z").toEpochMilli()));
+        history.close();
+    }
+}
@@ -0,0 +1,43 @@
+package edu.ucsd.flappycow.core;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TapLatencyTest {
+    private static final long MS = 1000000L;
+
+    @Test
+    public void testTapsAreMeasuredUntilTheFirstFrameAfterTheirTick() throws IOException {
+        // GIVEN
+        TapLatency latency = new TapLatency();
+
+        // WHEN
+        // two taps merged into one tick, shown by the second frame
+        latency.onQueued(0);
+        latency.onQueued(10 * MS);
+        latency.onFramePosted(20 * MS);
+        latency.onTick(true, 30 * MS);
+        latency.onFramePosted(45 * MS);
+        // a tap the autopilot ignores
+        latency.onQueued(100 * MS);
+        latency.onTick(false, 110 * MS);
+        // a tap that is shown after the revive
+        latency.onQueued(200 * MS);
+        latency.onTick(true, 220 * MS);
+        latency.clear();
+        latency.onFramePosted(300 * MS);
+
+        // THEN
+        assertEquals(2, latency.getToTick().getCount());
+        assertEquals(1, latency.getToFrame().getCount());
+        assertEquals(45 * MS, latency.getToFrame().getMax());
+        assertEquals(30 * MS, latency.getToTick().getMax());
+        StringBuilder dump = new StringBuilder();
+        latency.dump(dump);
+        assertTrue(dump.toString().contains("tapToFrame          1     45.00"));
+    }
+}
@@ -0,0 +1,153 @@
+package edu.ucsd.flappycow.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WorldTest {
+    @Test
+    public void testPlayerFallsToTheGround() {
+        // GIVEN
+        World world = new World(new WorldConfig(720, 1280));
+
+        // WHEN
+        int ticks = 0;
+        while (!world.isGameOver() && ticks < 1000) {
+            world.step(World.INPUT_NONE);
+            ticks++;
+        }
+
+        // THEN
+        assertTrue(world.isGameOver());
+        assertTrue(world.getPlayer().isTouchingGround());
+        assertEquals(0, world.getPoints());
+    }
+
+    @Test
+    public void testTapLetsPlayerFlapUp() {
+        // GIVEN
+        World world = new World(new WorldConfig(720, 1280));
+        float y = world.getPlayer().getY();
+
+        // WHEN
+        world.step(World.INPUT_TAP);
+
+        // THEN
+        assertTrue(world.getPlayer().getY() < y);
+        assertFalse(world.isGameOver());
+        assertEquals(2, world.getEntities().size());
+    }
+
+    /** How high a tap lets the player rise, as part of the screen height */
+    private static float rise(float hertz) {
+        World world = new World(new WorldConfig(720, 1280, 1280 / 1066f, new Difficulty(), 1 / hertz));
+        Player player = world.getPlayer();
+        float start = player.getY();
+        float top = start;
+        world.step(World.INPUT_TAP);
+        while (player.getSpeedY() < 0) {
+            top = Math.min(top, player.getY());
+            world.step(World.INPUT_NONE);
+        }
+        return (start - Math.min(top, player.getY())) / 1280;
+    }
+
+    @Test
+    public void testFallTakesTheSameTimeAtEveryTickRate() {
+        // GIVEN
+        float[] hertz = {20, 60, 120};
+        float[] seconds = new float[hertz.length];
+
+        // WHEN
+        for (int i = 0; i < hertz.length; i++) {
+            World world = new World(new WorldConfig(720, 1280, 1280 / 1066f, new Difficulty(), 1 / hertz[i]));
+            int ticks = 0;
+            while (!world.isGameOver()) {
+                world.step(World.INPUT_NONE);
+                ticks++;
+            }
+            seconds[i] = ticks / hertz[i];
+        }
+
+        // THEN
+        // The same within two ticks of the slowest rate, one for the integration, one for noticing the ground
+        assertEquals(seconds[0], seconds[1], 2 / hertz[0]);
+        assertEquals(seconds[0], seconds[2], 2 / hertz[0]);
+    }
+
+    @Test
+    public void testTapRisesTheSameAtEveryTickRate() {
+        // WHEN
+        float rise20 = rise(20);
+        float rise120 = rise(120);
+
+        // THEN
+        assertTrue(rise20 > 0.05f);
+        assertEquals(rise20, rise120, rise20 / 10);
+    }
+
+    @Test
+    public void testTapFollowsTheArcOfThe20HzGame() {
+        // GIVEN
+        World world = new World(new WorldConfig(720, 1280));
+        Player player = world.getPlayer();
+        // The step of the game that ticked at 20 Hz, in pixels per tick
+        float speed = -1280 / 16f;
+        float y = player.getY() - 1280 / 100f;
+
+        // WHEN
+        world.step(World.INPUT_TAP);
+        for (int tick = 0; tick < 30; tick++) {
+            boolean rising = speed < 0;
+            if (rising) {
+                speed = speed * 2 / 3 + 1280 / 320f / 2;
+            } else {
+                speed = Math.min(speed + 1280 / 320f, 1280 / 51.2f);
+            }
+            y += speed;
+
+            // THEN
+            // The same while rising, when falling it starts a bit faster and stays a few pixels lower
+            assertEquals(y, player.getY(), rising ? 0.05f : 5f);
+            world.step(World.INPUT_NONE);
+        }
+    }
+
+    @Test
+    public void testTapsMoveThePlayerTheSamePartOfTheScreenOnEverySize() {
+        // GIVEN
+        World small = new World(new WorldConfig(720, 1280));
+        World large = new World(new WorldConfig(1080, 1920));
+
+        // WHEN
+        for (int tick = 0; tick < 30; tick++) {
+            int input = tick % 6 == 0 ? World.INPUT_TAP : World.INPUT_NONE;
+            small.step(input);
+            large.step(input);
+        }
+
+        // THEN
+        assertEquals(small.getPlayer().getY() / 1280, large.getPlayer().getY() / 1920, 1e-4);
+        assertEquals(small.getSpeedX() / 720, large.getSpeedX() / 1080, 1e-6);
+    }
+
+    @Test
+    public void testReviveRemovesEntities() {
+        // GIVEN
+        World world = new World(new WorldConfig(720, 1280));
+        world.step(World.INPUT_NONE);
+        world.getEntities().passed[0] = true;
+
+        // WHEN
+        world.revive();
+        world.step(World.INPUT_NONE);
+
+        // THEN
+        EntityStore entities = world.getEntities();
+        assertEquals(2, entities.size());
+        assertEquals(EntityStore.SPIDER, entities.getKind(0));
+        assertFalse(entities.passed[0]);
+    }
+}
@@ -0,0 +1,299 @@
+/**
+ * Plays many games with different difficulties and screen sizes and reports how they go
+ * <p>
+ * For every combination of the swept difficulty values and every screen size,
+ * the games are spread over all cores with fork/join. Each game has its own seed,
+ * so a run of the tool is reproducible. The result of a game is its points and ticks,
+ * they are summed up in per-task histograms that are merged at the end.
+ */
+
+package edu.ucsd.flappycow.tools;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.ObjDoubleConsumer;
+
+import edu.ucsd.flappycow.core.Autopilot;
+import edu.ucsd.flappycow.core.Difficulty;
+import edu.ucsd.flappycow.core.Player;
+import edu.ucsd.flappycow.core.World;
+import edu.ucsd.flappycow.core.WorldConfig;
+
+public class Balancer {
+
+    /** Points above this are counted as this */
+    private static final int MAX_POINTS = 1000;
+
+    /** Games per task that isn't split anymore */
+    private static final int THRESHOLD = 256;
+
+    /** Points the survival curve is printed for */
+    private static final int[] SURVIVAL_POINTS = {1, 5, 10, 20, 42, 50, 100, 200, 500};
+
+    /** The difficulty values that can be swept, by name */
+    private static final Map<String, ObjDoubleConsumer<Difficulty>> PARAMETERS = new LinkedHashMap<String, ObjDoubleConsumer<Difficulty>>();
+
+    static {
+        PARAMETERS.put("speed", (d, v) -> d.setSpeed((float) v));
+        PARAMETERS.put("speedIncrease", (d, v) -> d.setSpeedIncrease((float) v));
+        PARAMETERS.put("pointsPerSpeedIncrease", (d, v) -> d.setPointsPerSpeedIncrease((int) v));
+        PARAMETERS.put("maxSpeedFactor", (d, v) -> d.setMaxSpeedFactor((float) v));
+        PARAMETERS.put("gapDivider", (d, v) -> d.setGapDivider((int) v));
+        PARAMETERS.put("minGapDivider", (d, v) -> d.setMinGapDivider((int) v));
+        PARAMETERS.put("gravity", (d, v) -> d.setGravity((float) v));
+        PARAMETERS.put("tapSpeed", (d, v) -> d.setTapSpeed((float) v));
+        PARAMETERS.put("tapJump", (d, v) -> d.setTapJump((float) v));
+        PARAMETERS.put("riseDecay", (d, v) -> d.setRiseDecay((float) v));
+        PARAMETERS.put("riseSpeed", (d, v) -> d.setRiseSpeed((float) v));
+        PARAMETERS.put("maxFallSpeed", (d, v) -> d.setMaxFallSpeed((float) v));
+        PARAMETERS.put("toastChance", Difficulty::setToastChance);
+        PARAMETERS.put("coinChance", Difficulty::setCoinChance);
+        PARAMETERS.put("virusChance", Difficulty::setVirusChance);
+    }
+
+    /** Who plays the games */
+    public enum Bot {
+        /** Taps when it's below the middle of the next gap and falling, cheap enough for millions of games */
+        SCRIPTED,
+        /** The autopilot with a small beam, plays much better but is much slower */
+        AUTOPILOT
+    }
+
+    /**
+     * Points and ticks of finished games
+     */
+    public static class Result {
+        /** Number of games that ended with the points, the last one counts all above */
+        final long[] points = new long[MAX_POINTS + 1];
+        long games;
+        long ticks;
+
+        void add(Result other) {
+            for (int i = 0; i <= MAX_POINTS; i++) {
+                points[i] += other.points[i];
+            }
+            games += other.games;
+            ticks += other.ticks;
+        }
+
+        /**
+         * The fraction of games that made at least the points.
+         */
+        public double survival(int minPoints) {
+            long count = 0;
+            for (int i = Math.max(0, minPoints); i <= MAX_POINTS; i++) {
+                count += points[i];
+            }
+            return games > 0 ? (double) count / games : 0;
+        }
+
+        /**
+         * The points that the given percentage of the games didn't exceed.
+         */
+        public int percentile(double percentile) {
+            long target = Math.max(1, (long) Math.ceil(percentile / 100 * games));
+            long seen = 0;
+            for (int i = 0; i <= MAX_POINTS; i++) {
+                seen += points[i];
+                if (seen >= target) {
+                    return i;
+                }
+            }
+            return MAX_POINTS;
+        }
+
+        public double mean() {
+            long sum = 0;
+            for (int i = 0; i <= MAX_POINTS; i++) {
+                sum += i * points[i];
+            }
+            return games > 0 ? (double) sum / games : 0;
+        }
+    }
+
+    private final WorldConfig config;
+    private final Bot bot;
+    private final int maxTicks;
+
+    public Balancer(WorldConfig config, Bot bot, int maxTicks) {
+        this.config = config;
+        this.bot = bot;
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * Plays the games with the seeds from firstSeed on, in parallel.
+     */
+    public Result run(long firstSeed, int games, ForkJoinPool pool) {
+        return pool.invoke(new Task(firstSeed, firstSeed + games));
+    }
+
+    private class Task extends RecursiveTask<Result> {
+        private static final long serialVersionUID = 1L;
+
+        private final long from, to;
+
+        Task(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from <= THRESHOLD) {
+                return play(from, to);
+            }
+            long mid = (from + to) >>> 1;
+            Task left = new Task(from, mid);
+            left.fork();
+            Result result = new Task(mid, to).compute();
+            result.add(left.join());
+            return result;
+        }
+    }
+
+    /**
+     * Plays the games of the seeds one after the other in this thread.
+     */
+    private Result play(long from, long to) {
+        Result result = new Result();
+        Autopilot autopilot = bot == Bot.AUTOPILOT ? new Autopilot(config, 4, 16, Long.MAX_VALUE) : null;
+        for (long seed = from; seed < to; seed++) {
+            World world = new World(config, seed);
+            int tick = 0;
+            while (!world.isGameOver() && tick < maxTicks) {
+                world.step(autopilot != null ? autopilot.decide(world) : scripted(world));
+                tick++;
+            }
+            result.points[Math.min(Math.max(world.getPoints(), 0), MAX_POINTS)]++;
+            result.games++;
+            result.ticks += tick;
+        }
+        return result;
+    }
+
+    /**
+     * Taps, when falling and further below the middle of the gap than half of what a tap lifts.
+     */
+    private static int scripted(World world) {
+        Player player = world.getPlayer();
+        int margin = world.getConfig().getHeight() / 20;
+        boolean below = player.getY() + player.getHeight() / 2 > world.getGapCenter() + margin;
+        return below && player.getSpeedY() >= 0 ? World.INPUT_TAP : World.INPUT_NONE;
+    }
+
+    /**
+     * Usage: Balancer [--games n] [--sizes 720x1280,1080x1920] [--bot scripted|autopilot]
+     * [--max-ticks n] [--sweep name=v1,v2,...]...
+     * <p>
+     * The sweeps are combined with each other, e.g. 3 gap and 2 speed values are 6 difficulties.
+     */
+    public static void main(String[] args) {
+        int games = 100000;
+        int maxTicks = 20000;
+        Bot bot = Bot.SCRIPTED;
+        List<int[]> sizes = new ArrayList<int[]>();
+        List<String> names = new ArrayList<String>();
+        List<double[]> values = new ArrayList<double[]>();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            String value = i + 1 < args.length ? args[i + 1] : "";
+            switch (arg) {
+                case "--games":
+                    games = Integer.parseInt(value);
+                    break;
+                case "--max-ticks":
+                    maxTicks = Integer.parseInt(value);
+                    break;
+                case "--bot":
+                    bot = Bot.valueOf(value.toUpperCase(Locale.US));
+                    break;
+                case "--sizes":
+                    for (String size : value.split(",")) {
+                        String[] wh = size.split("x");
+                        sizes.add(new int[]{Integer.parseInt(wh[0]), Integer.parseInt(wh[1])});
+                    }
+                    break;
+                case "--sweep":
+                    String[] nameValues = value.split("=");
+                    if (nameValues.length != 2 || !PARAMETERS.containsKey(nameValues[0])) {
+                        usage("Unknown parameter: " + value);
+                    }
+                    names.add(nameValues[0]);
+                    String[] split = nameValues[1].split(",");
+                    double[] parsed = new double[split.length];
+                    for (int j = 0; j < split.length; j++) {
+                        parsed[j] = Double.parseDouble(split[j]);
+                    }
+                    values.add(parsed);
+                    break;
+                default:
+                    usage("Unknown argument: " + arg);
+            }
+            i++;
+        }
+        if (sizes.isEmpty()) {
+            sizes.add(new int[]{720, 1280});
+        }
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int[] index = new int[names.size()];
+        do {
+            Difficulty difficulty = new Difficulty();
+            StringBuilder label = new StringBuilder();
+            for (int i = 0; i < names.size(); i++) {
+                double value = values.get(i)[index[i]];
+                PARAMETERS.get(names.get(i)).accept(difficulty, value);
+                label.append(names.get(i)).append('=').append(value).append(' ');
+            }
+            for (int[] size : sizes) {
+                WorldConfig config = new WorldConfig(size[0], size[1], size[1] / 1066f, difficulty);
+                long start = System.nanoTime();
+                Result result = new Balancer(config, bot, maxTicks).run(0, games, pool);
+                long millis = Math.max(1, (System.nanoTime() - start) / 1000000);
+                print(label + "" + size[0] + "x" + size[1], result, millis);
+            }
+        } while (next(index, values));
+    }
+
+    /**
+     * Counts through all combinations of the swept values.
+     *
+     * @return false after the last one
+     */
+    static boolean next(int[] index, List<double[]> values) {
+        for (int i = index.length - 1; i >= 0; i--) {
+            if (++index[i] < values.get(i).length) {
+                return true;
+            }
+            index[i] = 0;
+        }
+        return false;
+    }
+
+    private static void print(String label, Result result, long millis) {
+        System.out.printf(Locale.US, "%s: %d games in %d ms, %.1f ticks/game%n", label, result.games, millis,
+            (double) result.ticks / result.games);
+        System.out.printf(Locale.US, "  points mean %.2f p50 %d p90 %d p99 %d%n", result.mean(),
+            result.percentile(50), result.percentile(90), result.percentile(99));
+        StringBuilder survival = new StringBuilder("  survival");
+        for (int points : SURVIVAL_POINTS) {
+            survival.append(String.format(Locale.US, " %d:%.4f", points, result.survival(points)));
+        }
+        System.out.println(survival);
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: Balancer [--games n] [--sizes 720x1280,...] [--bot scripted|autopilot]"
+            + " [--max-ticks n] [--sweep name=v1,v2,...]...");
+        System.err.println("Parameters: " + String.join(", ", PARAMETERS.keySet()));
+        System.exit(2);
+    }
+}
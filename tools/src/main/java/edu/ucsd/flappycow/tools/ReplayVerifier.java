@@ -0,0 +1,210 @@
+/**
+ * Simulates recorded runs again and checks the points, coins and achievements they claim
+ * <p>
+ * The replays are spread over all cores with fork/join.
+ * Every replay is read and simulated in its own world, only the collision masks are shared.
+ * <p>
+ * The masks have to come from trusted devices, one set per screen, never from whoever sent the replays:
+ * masks without solid pixels would let any claim pass. A replay is played with the masks of the hash it names,
+ * if they fit its screen.
+ */
+
+package edu.ucsd.flappycow.tools;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.ucsd.flappycow.core.CollisionMasks;
+import edu.ucsd.flappycow.core.Replay;
+
+public class ReplayVerifier {
+
+    /** The run ends like it claims */
+    public static final int VALID = 0;
+
+    /** The run ends differently, the claim is wrong */
+    public static final int INVALID = 1;
+
+    /** The run was recorded with collision masks, but none of the trusted ones */
+    public static final int NO_MASKS = 2;
+
+    /** The file isn't a replay */
+    public static final int UNREADABLE = 3;
+
+    private static final String[] RESULT_NAMES = {"valid", "invalid", "unknown masks", "unreadable"};
+
+    /** Extension of the replay files in a directory */
+    public static final String EXTENSION = ".fcr";
+
+    /** Extension of the collision mask files in a directory */
+    public static final String MASKS_EXTENSION = ".bin";
+
+    /** Replays a task verifies itself instead of splitting them up */
+    private static final int THRESHOLD = 4;
+
+    /** The trusted collision masks by their hash */
+    private final Map<Long, CollisionMasks> masks = new HashMap<Long, CollisionMasks>();
+
+    /**
+     * @param masks the trusted collision masks, of every screen the replays may come from
+     */
+    public ReplayVerifier(List<CollisionMasks> masks) {
+        for (CollisionMasks m : masks) {
+            this.masks.put(m.hash(), m);
+        }
+    }
+
+    public int verify(Replay replay) {
+        CollisionMasks masks = null;
+        if (replay.needsMasks()) {
+            masks = this.masks.get(replay.getMasksHash());
+            if (masks == null) {
+                return NO_MASKS;
+            }
+            if (!replay.matches(masks)) {
+                // The hash is known, but the masks are made for another screen
+                return INVALID;
+            }
+        }
+        try {
+            return replay.verify(masks) ? VALID : INVALID;
+        } catch (RuntimeException e) {
+            // A forged run may not play at all, e.g. the player never reaches the ground
+            return INVALID;
+        }
+    }
+
+    /**
+     * Never throws, a corrupt or forged file mustn't stop the other replays from being verified.
+     */
+    public int verify(File file) {
+        Replay replay;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            replay = Replay.read(in);
+        } catch (IOException | RuntimeException e) {
+            return UNREADABLE;
+        }
+        return verify(replay);
+    }
+
+    /**
+     * Verifies the files in parallel.
+     *
+     * @return the result for every file, at the same index
+     */
+    public int[] verifyAll(File[] files, ForkJoinPool pool) {
+        int[] results = new int[files.length];
+        pool.invoke(new Task(files, results, 0, files.length));
+        return results;
+    }
+
+    /**
+     * Halves the range until it's small enough, idle threads steal the other halves.
+     */
+    private class Task extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final File[] files;
+        private final int[] results;
+        private final int from, to;
+
+        Task(File[] files, int[] results, int from, int to) {
+            this.files = files;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    results[i] = verify(files[i]);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Task(files, results, from, mid), new Task(files, results, mid, to));
+        }
+    }
+
+    public static CollisionMasks readMasks(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return CollisionMasks.read(in);
+        }
+    }
+
+    /**
+     * The files, and the files with the extension in the directories.
+     */
+    private static File[] collect(List<String> paths, String extension) {
+        List<File> files = new ArrayList<File>();
+        for (String path : paths) {
+            File file = new File(path);
+            File[] children = file.listFiles((dir, name) -> name.endsWith(extension));
+            if (children != null) {
+                for (File child : children) {
+                    files.add(child);
+                }
+            } else {
+                files.add(file);
+            }
+        }
+        return files.toArray(new File[0]);
+    }
+
+    /**
+     * Usage: ReplayVerifier [--masks masks-file-or-directory]... replay-or-directory...
+     * <p>
+     * Prints every replay that isn't valid and a summary.
+     * Exits with 1, if a replay is invalid.
+     */
+    public static void main(String[] args) throws IOException {
+        List<String> masksPaths = new ArrayList<String>();
+        List<String> paths = new ArrayList<String>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--masks") && i + 1 < args.length) {
+                masksPaths.add(args[++i]);
+            } else {
+                paths.add(args[i]);
+            }
+        }
+        if (paths.isEmpty()) {
+            System.err.println("Usage: ReplayVerifier [--masks masks-file-or-directory]... replay-or-directory...");
+            System.exit(2);
+        }
+
+        List<CollisionMasks> masks = new ArrayList<CollisionMasks>();
+        for (File file : collect(masksPaths, MASKS_EXTENSION)) {
+            masks.add(readMasks(file));
+        }
+        File[] files = collect(paths, EXTENSION);
+        long start = System.nanoTime();
+        int[] results = new ReplayVerifier(masks).verifyAll(files, ForkJoinPool.commonPool());
+        long millis = Math.max(1, (System.nanoTime() - start) / 1000000);
+
+        int[] counts = new int[RESULT_NAMES.length];
+        for (int i = 0; i < files.length; i++) {
+            counts[results[i]]++;
+            if (results[i] != VALID) {
+                System.out.println(RESULT_NAMES[results[i]] + ": " + files[i]);
+            }
+        }
+        System.out.printf("%d replays in %d ms (%d/s) on %d threads%n", files.length, millis,
+            files.length * 1000L / millis, ForkJoinPool.commonPool().getParallelism());
+        for (int i = 0; i < RESULT_NAMES.length; i++) {
+            System.out.printf("%-14s %d%n", RESULT_NAMES[i], counts[i]);
+        }
+        System.exit(counts[INVALID] > 0 ? 1 : 0);
+    }
+}
@@ -0,0 +1,88 @@
+package edu.ucsd.flappycow.tools;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class BalancerTest {
+
+    /** 10 games: four with 0 points, three with 5, two with 20 and one with more than the maximum */
+    private static Balancer.Result createResult() {
+        Balancer.Result result = new Balancer.Result();
+        result.points[0] = 4;
+        result.points[5] = 3;
+        result.points[20] = 2;
+        result.points[result.points.length - 1] = 1;
+        result.games = 10;
+        return result;
+    }
+
+    @Test
+    public void testPercentile() {
+        // GIVEN
+        Balancer.Result result = createResult();
+
+        // WHEN + THEN
+        assertEquals(0, result.percentile(0));
+        assertEquals(0, result.percentile(40));
+        assertEquals(5, result.percentile(41));
+        assertEquals(5, result.percentile(70));
+        assertEquals(20, result.percentile(90));
+        assertEquals(result.points.length - 1, result.percentile(99));
+    }
+
+    @Test
+    public void testSurvival() {
+        // GIVEN
+        Balancer.Result result = createResult();
+
+        // WHEN + THEN
+        assertEquals(1, result.survival(0), 0);
+        assertEquals(0.6, result.survival(1), 1e-9);
+        assertEquals(0.6, result.survival(5), 1e-9);
+        assertEquals(0.3, result.survival(6), 1e-9);
+        assertEquals(0.1, result.survival(21), 1e-9);
+        assertEquals(0, new Balancer.Result().survival(1), 0);
+    }
+
+    @Test
+    public void testMean() {
+        // GIVEN
+        Balancer.Result result = createResult();
+
+        // WHEN + THEN
+        assertEquals((3 * 5 + 2 * 20 + result.points.length - 1) / 10.0, result.mean(), 1e-9);
+        assertEquals(0, new Balancer.Result().mean(), 0);
+    }
+
+    @Test
+    public void testNextCountsThroughAllCombinations() {
+        // GIVEN
+        List<double[]> values = Arrays.asList(new double[]{1, 2}, new double[]{3}, new double[]{4, 5, 6});
+        int[] index = new int[values.size()];
+
+        // WHEN
+        StringBuilder seen = new StringBuilder();
+        do {
+            seen.append(Arrays.toString(index));
+        } while (Balancer.next(index, values));
+
+        // THEN
+        assertEquals("[0, 0, 0][0, 0, 1][0, 0, 2][1, 0, 0][1, 0, 1][1, 0, 2]", seen.toString());
+        assertArrayEquals(new int[3], index);
+    }
+
+    @Test
+    public void testNextWithoutSweepsRunsOnce() {
+        // GIVEN
+        int[] index = new int[0];
+
+        // WHEN + THEN
+        assertFalse(Balancer.next(index, Arrays.<double[]>asList()));
+    }
+}
@@ -0,0 +1,85 @@
+package edu.ucsd.flappycow.tools;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import edu.ucsd.flappycow.core.ReplayRecorder;
+import edu.ucsd.flappycow.core.World;
+import edu.ucsd.flappycow.core.WorldConfig;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class ReplayVerifierTest {
+
+    /** "FCR" version, seed, width and height of 720x1280, scale factor */
+    private static final int TICK_OFFSET = 4 + 8 + 2 + 2 + 4;
+
+    /** ... tick length, flags without masks, no events */
+    private static final int TICKS_OFFSET = TICK_OFFSET + 4 + 1 + 1;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** A run of a few ticks without any taps */
+    private static byte[] createReplay() throws IOException {
+        World world = new World(new WorldConfig(720, 1280), 42);
+        ReplayRecorder recorder = new ReplayRecorder(world, null);
+        for (int tick = 0; tick < 3; tick++) {
+            recorder.onStep(World.INPUT_NONE);
+            world.step(World.INPUT_NONE);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recorder.getReplay().write(out);
+        return out.toByteArray();
+    }
+
+    private File write(String name, byte[] bytes) throws IOException {
+        File file = folder.newFile(name + ReplayVerifier.EXTENSION);
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(bytes);
+        }
+        return file;
+    }
+
+    @Test
+    public void testCorruptReplaysDontStopTheOthers() throws IOException {
+        // GIVEN
+        byte[] valid = createReplay();
+
+        byte[] noTime = valid.clone();
+        Arrays.fill(noTime, TICK_OFFSET, TICK_OFFSET + 4, (byte) 0);
+
+        // Claims Integer.MAX_VALUE ticks, no points, coins or achievements
+        byte[] endless = Arrays.copyOf(valid, TICKS_OFFSET + 8);
+        endless[TICKS_OFFSET] = (byte) 0xFF;
+        endless[TICKS_OFFSET + 1] = (byte) 0xFF;
+        endless[TICKS_OFFSET + 2] = (byte) 0xFF;
+        endless[TICKS_OFFSET + 3] = (byte) 0xFF;
+        endless[TICKS_OFFSET + 4] = 0x07;
+
+        File[] files = {
+            write("valid", valid),
+            write("noTime", noTime),
+            write("endless", endless),
+            write("truncated", Arrays.copyOf(valid, 10)),
+            write("garbage", "not a replay".getBytes("US-ASCII")),
+        };
+
+        // WHEN
+        int[] results = new ReplayVerifier(new ArrayList<>()).verifyAll(files, ForkJoinPool.commonPool());
+
+        // THEN
+        assertArrayEquals(new int[]{ReplayVerifier.VALID, ReplayVerifier.UNREADABLE, ReplayVerifier.UNREADABLE,
+            ReplayVerifier.UNREADABLE, ReplayVerifier.UNREADABLE}, results);
+    }
+}